@@ -0,0 +1,36 @@
+package task1;
+
+import java.util.Map;
+
+/**
+ * Читання числових параметрів ключ=значення, які task1.Main передає рушіям завдань.
+ */
+public final class JobOptions {
+    private JobOptions() {}
+
+    /**
+     * Повертає ціле значення параметра
+     * @param options параметри у вигляді ключ=значення
+     * @param key назва параметра
+     * @param defaultValue значення, якщо параметр не вказано
+     * @return значення параметра
+     * @throws NumberFormatException якщо значення не є цілим числом
+     */
+    public static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Повертає значення параметра типу long
+     * @param options параметри у вигляді ключ=значення
+     * @param key назва параметра
+     * @param defaultValue значення, якщо параметр не вказано
+     * @return значення параметра
+     * @throws NumberFormatException якщо значення не є цілим числом
+     */
+    public static long longOption(Map<String, String> options, String key, long defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
\ No newline at end of file
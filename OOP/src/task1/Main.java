@@ -1,15 +1,129 @@
 package task1;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Консольна програма, яка виводить аргументи командного рядка,
+ * а також запускає операції рушіїв інших завдань без інтерактивного меню.
+ *
+ * Формат запуску: {@code task1.Main taskN операція [операція ...] [ключ=значення ...]},
+ * наприклад {@code task1.Main task4 generate render count=1000000 columns=5}.
+ * Клас рушія {@code taskN.Jobs} завантажується лише під час запуску,
+ * тому у JVM потрапляють тільки класи запитаного завдання.
+ */
 public class Main {
     public static void main(String[] args) {
+        long mainStart = System.nanoTime();
         if (args.length == 0) {
             System.out.println("Готова до практичної роботи з ООП");
             return;
         }
 
-        System.out.println("Аргументи командного рядка:");
-        for (String argument : args) {
-            System.out.println(" - " + argument);
+        if (!isTaskName(args[0])) {
+            System.out.println("Аргументи командного рядка:");
+            for (String argument : args) {
+                System.out.println(" - " + argument);
+            }
+            return;
+        }
+
+        System.exit(runJobs(args, mainStart));
+    }
+
+    /**
+     * Перевіряє, чи є аргумент назвою завдання (task2 ... task9)
+     * @param argument аргумент командного рядка
+     * @return true, якщо це назва завдання
+     */
+    private static boolean isTaskName(String argument) {
+        return argument.length() == 5 && argument.startsWith("task")
+                && argument.charAt(4) >= '2' && argument.charAt(4) <= '9';
+    }
+
+    /**
+     * Виконує операції рушія завдання та виводить час кожної фази.
+     * Рядки збираються через StringBuilder, щоб не ініціалізувати
+     * інфраструктуру invokedynamic для конкатенації під час холодного старту.
+     * @param args аргументи командного рядка
+     * @param mainStart момент входу в main
+     * @return код завершення процесу
+     */
+    private static int runJobs(String[] args, long mainStart) {
+        String[] operations = new String[args.length];
+        int operationCount = 0;
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq > 0) {
+                options.put(args[i].substring(0, eq), args[i].substring(eq + 1));
+            } else {
+                operations[operationCount++] = args[i];
+            }
+        }
+        if (operationCount == 0) {
+            System.err.println("Не вказано жодної операції (generate, process, save, load, render)");
+            return 2;
         }
+
+        long loadStart = System.nanoTime();
+        Method run;
+        try {
+            Class<?> jobs = Class.forName(new StringBuilder(args[0]).append(".Jobs").toString());
+            run = jobs.getMethod("run", String.class, Map.class);
+        } catch (ReflectiveOperationException e) {
+            System.err.println(new StringBuilder("Рушій завдання не знайдено: ").append(args[0]));
+            return 2;
+        }
+        long loadEnd = System.nanoTime();
+
+        StringBuilder report = new StringBuilder("\n--- Час виконання ---\n");
+        appendPhase(report, "завантаження рушія", loadStart, loadEnd);
+        for (int i = 0; i < operationCount; i++) {
+            long start = System.nanoTime();
+            try {
+                run.invoke(null, operations[i], options);
+            } catch (InvocationTargetException e) {
+                // Деякі винятки (наприклад, NullPointerException) не мають повідомлення - тоді виводиться їхній тип
+                Throwable cause = e.getCause();
+                System.err.println(new StringBuilder("Помилка операції ").append(operations[i]).append(": ")
+                        .append(cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+                return 1;
+            } catch (IllegalAccessException e) {
+                System.err.println(new StringBuilder("Рушій недоступний: ").append(e.getMessage()));
+                return 2;
+            }
+            appendPhase(report, operations[i], start, System.nanoTime());
+        }
+        long end = System.nanoTime();
+
+        // Час від старту JVM до входу в main; модуль java.management завантажується
+        // лише на запит (jvm=true), бо сам додає десятки мілісекунд до запуску
+        if ("true".equals(options.get("jvm"))) {
+            long uptime = java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime();
+            long sinceMain = (System.nanoTime() - mainStart) / 1_000_000;
+            report.append("запуск JVM до main: ").append(uptime - sinceMain).append(" мс\n");
+        }
+        appendPhase(report, "загальний час у main", mainStart, end);
+        System.out.print(report);
+        return 0;
+    }
+
+    /**
+     * Додає рядок з тривалістю фази до звіту
+     * @param report звіт
+     * @param phase назва фази
+     * @param start початок у наносекундах
+     * @param end кінець у наносекундах
+     */
+    private static void appendPhase(StringBuilder report, String phase, long start, long end) {
+        long micros = (end - start) / 1000;
+        report.append(phase).append(": ").append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) report.append('0');
+        if (fraction < 10) report.append('0');
+        report.append(fraction).append(" мс\n");
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package task2;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Точка входу неінтерактивних операцій завдання 2 для запуску з task1.Main.
+ * Операції над числами та їхній стан належать класу Main1, пакетне обчислення площ - Main4.
+ */
+public final class Jobs {
+    private Jobs() {}
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, process, save, load, render, bulk, geometry)
+     * @param options параметри у вигляді ключ=значення
+     * @throws IOException якщо виникає помилка читання вхідних даних
+     */
+    public static void run(String operation, Map<String, String> options) throws IOException {
+        if ("geometry".equals(operation)) {
+            Main4.calculateBatch(options.get("file"));
+        } else {
+            Main1.run(operation, options);
+        }
+    }
+}
\ No newline at end of file
@@ -1,15 +1,31 @@
 package task2;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.stream.IntStream;
+import static task1.JobOptions.intOption;
 
 /**
  * Клас Data для зберігання списку чисел та результату їх обчислення.
  * Реалізує інтерфейс Serializable для можливості серіалізації.
+ * Числа зберігаються у примітивному масиві, а у файл записуються як список,
+ * тому формат серіалізації залишається сумісним із раніше збереженими файлами.
  */
 class Data implements Serializable {
     private static final long serialVersionUID = 1L; // Ідентифікатор версії для серіалізації
-    private List<Double> numbers; // Список чисел
+    // Поля, що записуються у потік (збігаються з попередньою версією класу)
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("numbers", List.class),
+            new ObjectStreamField("result", double.class)
+    };
+    private transient double[] numbers; // Масив чисел
     private double result; // Результат обчислення (сума)
 
     /**
@@ -17,24 +33,53 @@ class Data implements Serializable {
      * @param numbers Список чисел для обробки
      */
     public Data(List<Double> numbers) {
-        this.numbers = new ArrayList<>(numbers); // Створюємо копію для запобігання змін ззовні
+        this(numbers.stream().mapToDouble(Double::doubleValue).toArray()); // Копія для запобігання змін ззовні
+    }
+
+    /**
+     * Конструктор класу Data з примітивного масиву без копіювання.
+     * Масив переходить у власність об'єкта і не повинен змінюватися ззовні.
+     * @param numbers Масив чисел для обробки
+     */
+    public Data(double[] numbers) {
+        this.numbers = numbers;
         this.result = calculateSum(numbers); // Обчислюємо суму під час створення об'єкта
     }
 
     /**
      * Метод для обчислення суми чисел.
-     * @param numbers Список чисел
-     * @return Сума всіх чисел у списку
+     * @param numbers Масив чисел
+     * @return Сума всіх чисел у масиві
+     */
+    private double calculateSum(double[] numbers) {
+        return CompensatedSummation.sum(numbers); // Детермінована паралельна сума з компенсацією похибки
+    }
+
+    /**
+     * Повертає незмінне представлення чисел у вигляді списку (без копіювання масиву).
+     * @return Незмінний список чисел
      */
-    private double calculateSum(List<Double> numbers) {
-        return numbers.stream().mapToDouble(Double::doubleValue).sum(); // Використовуємо Stream API для обчислення суми
+    public List<Double> getNumbers() {
+        return new AbstractList<Double>() {
+            @Override
+            public Double get(int index) { return numbers[index]; }
+            @Override
+            public int size() { return numbers.length; }
+        };
     }
 
     /**
-     * Повертає незмінний список чисел.
-     * @return Незмінна копія списку чисел
+     * Повертає кількість чисел.
+     * @return Кількість чисел
+     */
+    public int size() { return numbers.length; }
+
+    /**
+     * Повертає число за індексом без упакування.
+     * @param index Індекс числа
+     * @return Число
      */
-    public List<Double> getNumbers() { return Collections.unmodifiableList(numbers); }
+    public double get(int index) { return numbers[index]; }
 
     /**
      * Повертає результат обчислення.
@@ -42,13 +87,107 @@ class Data implements Serializable {
      */
     public double getResult() { return result; }
 
+    /**
+     * Записує об'єкт у потік у форматі попередньої версії (список чисел і сума).
+     * @param out Потік виведення
+     * @throws IOException якщо виникає помилка запису
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("numbers", new ArrayList<>(getNumbers()));
+        fields.put("result", result);
+        out.writeFields();
+    }
+
+    /**
+     * Відновлює об'єкт з потоку, перетворюючи збережений список у масив.
+     * @param in Потік введення
+     * @throws IOException якщо виникає помилка читання
+     * @throws ClassNotFoundException якщо клас не знайдено
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        List<Double> list = (List<Double>) fields.get("numbers", null);
+        this.numbers = list == null ? new double[0] : list.stream().mapToDouble(Double::doubleValue).toArray();
+        this.result = fields.get("result", 0.0);
+    }
+
     /**
      * Перевизначений метод toString() для зручного виведення об'єкта.
      * @return Рядок з інформацією про числа та їх суму
      */
     @Override
     public String toString() {
-        return "Числа- " + numbers + ", Сума- " + result;
+        return "Числа- " + getNumbers() + ", Сума- " + result;
+    }
+}
+
+/**
+ * Клас для точного паралельного підсумовування дійсних чисел.
+ * Масив ділиться на блоки фіксованого розміру, кожен блок підсумовується
+ * з компенсацією похибки округлення (алгоритм Ноймайєра), а суми блоків
+ * об'єднуються попарно у фіксованому порядку дерева. Межі блоків і порядок
+ * об'єднання не залежать від кількості потоків, тому результат завжди побітово однаковий.
+ */
+final class CompensatedSummation {
+    private static final int BLOCK_SIZE = 1 << 14; // Кількість чисел в одному блоці
+    private static final int PARALLEL_THRESHOLD = 8; // Мінімальна кількість блоків для паралельного режиму
+
+    private CompensatedSummation() {}
+
+    /**
+     * Обчислює суму всіх чисел масиву
+     * @param numbers масив чисел
+     * @return сума з компенсацією похибки округлення
+     */
+    public static double sum(double[] numbers) {
+        int blocks = (numbers.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (blocks == 0) return 0.0;
+        double[] sums = new double[blocks];
+        double[] compensations = new double[blocks];
+
+        IntStream range = IntStream.range(0, blocks);
+        // Кожен блок записує результат у власну комірку, тож порядок виконання не впливає на результат
+        (blocks >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(b -> {
+            int from = b * BLOCK_SIZE;
+            int to = from + Math.min(BLOCK_SIZE, numbers.length - from);
+            double sum = 0.0;
+            double compensation = 0.0;
+            for (int i = from; i < to; i++) {
+                double value = numbers[i];
+                double t = sum + value;
+                // Втрачені молодші розряди меншого за модулем доданка
+                if (Math.abs(sum) >= Math.abs(value)) {
+                    compensation += (sum - t) + value;
+                } else {
+                    compensation += (value - t) + sum;
+                }
+                sum = t;
+            }
+            sums[b] = sum;
+            compensations[b] = compensation;
+        });
+
+        // Попарне об'єднання: (0,1), (2,3), ... потім (01,23), ... до одного значення
+        for (int step = 1; step < blocks; step <<= 1) {
+            for (int i = 0; i + step < blocks; i += step << 1) {
+                double a = sums[i];
+                double b = sums[i + step];
+                double t = a + b;
+                // Точна похибка додавання двох сум (TwoSum)
+                double bVirtual = t - a;
+                double error = (a - (t - bVirtual)) + (b - bVirtual);
+                sums[i] = t;
+                compensations[i] += compensations[i + step] + error;
+            }
+        }
+        double result = sums[0] + compensations[0];
+        // sums[] - звичайні суми без поправок; якщо сума переповнилась або серед чисел є
+        // нескінченність, поправка стає NaN, тож, як і Collectors.summingDouble, повертаємо
+        // нескінченну звичайну суму
+        if (Double.isNaN(result) && Double.isInfinite(sums[0])) return sums[0];
+        return result;
     }
 }
 
@@ -67,6 +206,14 @@ class Calculator {
         this.data = new Data(numbers); // Створюємо новий об'єкт Data з переданими числами
     }
 
+    /**
+     * Конструктор класу Calculator з примітивного масиву (без копіювання).
+     * @param numbers Масив чисел для обчислення
+     */
+    public Calculator(double[] numbers) {
+        this.data = new Data(numbers);
+    }
+
     /**
      * Повертає об'єкт даних.
      * @return Об'єкт Data
@@ -111,12 +258,188 @@ class Calculator {
     }
 }
 
+/**
+ * Клас для масового читання дійсних чисел з файлу або каналу.
+ * Числа розбираються напряму з байтового буфера без створення рядків і записуються
+ * у примітивний масив. Числа з не більше ніж 15 значущими цифрами та порядком
+ * до 22 обчислюються точно одним множенням або діленням (алгоритм Клінгера),
+ * решта передається у Double.parseDouble, тому результат завжди точний.
+ */
+class BulkDoubleReader {
+    private static final int BUFFER_SIZE = 1 << 24; // Розмір буфера читання (16 МБ)
+    private static final int MAX_TOKEN_LENGTH = 1 << 10; // Найдовше допустиме число
+    // Степені 10, що точно представляються у double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Буфер у купі: розбір іде напряму по його масиву без перевірок меж для кожного get()
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private double[] values = new double[1 << 16]; // Прочитані числа
+    private int count; // Кількість прочитаних чисел
+    private long bytesRead; // Кількість прочитаних байтів
+
+    /**
+     * Читає всі числа з файлу
+     * @param path шлях до файлу
+     * @return масив прочитаних чисел
+     * @throws IOException якщо виникає помилка читання
+     */
+    public double[] read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Попередня оцінка кількості чисел за розміром файлу (у середньому ~8 байт на число)
+            long estimate = channel.size() / 8 + 16;
+            if (estimate > values.length && estimate < Integer.MAX_VALUE - 8) {
+                values = new double[(int) estimate];
+            }
+            return read(channel);
+        }
+    }
+
+    /**
+     * Читає всі числа з каналу до його завершення.
+     * Числа розділяються пробільними символами; десятковий розділювач — крапка.
+     * @param channel канал вхідних даних
+     * @return масив прочитаних чисел
+     * @throws IOException якщо виникає помилка читання
+     * @throws NumberFormatException якщо зустрілося некоректне число
+     */
+    public double[] read(ReadableByteChannel channel) throws IOException {
+        count = 0;
+        bytesRead = 0;
+        buffer.clear();
+        boolean eof = false;
+        while (!eof) {
+            int n = channel.read(buffer);
+            if (n < 0) eof = true; else bytesRead += n;
+            buffer.flip();
+            int limit = buffer.limit();
+            int pos = 0;
+            while (true) {
+                while (pos < limit && isSeparator(bytes[pos])) pos++;
+                int end = pos;
+                while (end < limit && !isSeparator(bytes[end])) end++;
+                if (end - pos > MAX_TOKEN_LENGTH) {
+                    throw new NumberFormatException("Занадто довге число (понад " + MAX_TOKEN_LENGTH + " байт)");
+                }
+                if (pos == end || (end == limit && !eof)) break; // Число може продовжитися у наступному блоці
+                add(parse(pos, end));
+                pos = end;
+            }
+            if (pos > 0 || !eof) {
+                // Незавершене число (не довше за MAX_TOKEN_LENGTH) переноситься на початок буфера
+                buffer.position(pos);
+                buffer.compact();
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Повертає кількість прочитаних байтів останнього читання
+     * @return кількість байтів
+     */
+    public long getBytesRead() { return bytesRead; }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private void add(double value) {
+        if (count == values.length) values = Arrays.copyOf(values, count + (count >> 1));
+        values[count++] = value;
+    }
+
+    /**
+     * Розбирає одне число у межах буфера [from, to)
+     * @param from початок числа
+     * @param to кінець числа
+     * @return значення числа
+     */
+    private double parse(int from, int to) {
+        int i = from;
+        boolean negative = false;
+        byte b = bytes[i];
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0; // Кількість значущих цифр
+        int exponent = 0; // Десятковий порядок з урахуванням дробової частини
+        boolean anyDigit = false;
+        boolean exact = true;
+        for (; i < to && (b = bytes[i]) >= '0' && b <= '9'; i++) {
+            anyDigit = true;
+            if (digits < 19) {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exact = false;
+            }
+        }
+        if (i < to && bytes[i] == '.') {
+            for (i++; i < to && (b = bytes[i]) >= '0' && b <= '9'; i++) {
+                anyDigit = true;
+                if (digits < 19) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) digits++;
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+        if (!anyDigit) throw invalid(from, to);
+        if (i < to && ((b = bytes[i]) == 'e' || b == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && ((b = bytes[i]) == '-' || b == '+')) {
+                negativeExponent = b == '-';
+                i++;
+            }
+            int exp = 0;
+            int start = i;
+            for (; i < to && (b = bytes[i]) >= '0' && b <= '9'; i++) {
+                if (exp < 100_000) exp = exp * 10 + (b - '0');
+            }
+            if (i == start) throw invalid(from, to);
+            exponent += negativeExponent ? -exp : exp;
+        }
+        if (i != to) throw invalid(from, to);
+
+        if (exact && digits <= 15 && exponent >= -22 && exponent <= 22) {
+            double value = mantissa;
+            value = exponent >= 0 ? value * POWERS_OF_TEN[exponent] : value / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(token(from, to)); // Повільний, але точний шлях
+    }
+
+    private String token(int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.US_ASCII);
+    }
+
+    private NumberFormatException invalid(int from, int to) {
+        return new NumberFormatException("Некоректне число: " + token(from, to));
+    }
+}
+
 /**
  * Головний клас програми.
  * Взаємодіє з користувачем, отримує введення та демонструє результати.
  */
 public class Main1 {
+    private static Calculator jobCalculator; // Калькулятор неінтерактивних операцій (run) між операціями одного запуску
+
     public static void main(String[] args) {
+        // Масовий режим: Main1 --bulk [файл]; без файлу числа читаються зі стандартного вводу до його завершення
+        if (args.length > 0 && args[0].equals("--bulk")) {
+            runBulk(args.length > 1 ? args[1] : null);
+            return;
+        }
         try (Scanner scanner = new Scanner(System.in)) { // Використовуємо try-with-resources для автоматичного закриття Scanner
             List<Double> numbers = new ArrayList<>(); // Створюємо список для зберігання введених чисел
 
@@ -163,4 +486,72 @@ public class Main1 {
             System.err.println("Сталася помилка: " + e.getMessage());
         }
     }
-}
+
+    /**
+     * Масове читання чисел і обчислення суми без інтерактивного введення
+     * @param filename шлях до файлу або null для стандартного вводу
+     */
+    private static void runBulk(String filename) {
+        try {
+            BulkDoubleReader reader = new BulkDoubleReader();
+            long start = System.nanoTime();
+            double[] numbers = filename == null
+                    ? reader.read(Channels.newChannel(System.in))
+                    : reader.read(Path.of(filename));
+            long parsed = System.nanoTime();
+            Calculator calculator = new Calculator(numbers);
+            long done = System.nanoTime();
+
+            double seconds = (parsed - start) / 1e9;
+            System.out.println("Прочитано чисел: " + numbers.length);
+            System.out.println("Сума: " + calculator.getData().getResult());
+            System.out.printf("Час читання: %.3f с (%.1f МБ/с), час обчислення: %.3f с%n",
+                    seconds, reader.getBytesRead() / 1e6 / seconds, (done - parsed) / 1e9);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Помилка масового читання: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Виконує одну іменовану операцію над числами
+     * @param operation назва операції (generate, process, save, load, render, bulk)
+     * @param options параметри у вигляді ключ=значення
+     * @throws IOException якщо виникає помилка читання вхідних даних
+     */
+    static void run(String operation, Map<String, String> options) throws IOException {
+        switch (operation) {
+            case "generate" -> {
+                int count = intOption(options, "count", 15);
+                int bound = intOption(options, "bound", 100);
+                Random random = new Random(intOption(options, "seed", 42));
+                List<Double> numbers = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    numbers.add(random.nextDouble() * bound);
+                }
+                jobCalculator = new Calculator(numbers);
+                System.out.println("Згенеровано чисел: " + count);
+            }
+            case "process" -> System.out.println("Сума: " + requireCalculator().getData().getResult());
+            case "save" -> requireCalculator().saveData(options.getOrDefault("file", "data.txt"));
+            case "load" -> {
+                if (jobCalculator == null) jobCalculator = new Calculator(new ArrayList<>());
+                jobCalculator.loadData(options.getOrDefault("file", "data.txt"));
+                System.out.println("Завантажено чисел: " + jobCalculator.getData().getNumbers().size());
+            }
+            case "render" -> System.out.println(requireCalculator().getData());
+            case "bulk" -> {
+                String file = options.get("file");
+                BulkDoubleReader reader = new BulkDoubleReader();
+                jobCalculator = new Calculator(file == null
+                        ? reader.read(Channels.newChannel(System.in)) : reader.read(Path.of(file)));
+                System.out.println("Прочитано чисел: " + jobCalculator.getData().size());
+            }
+            default -> throw new IllegalArgumentException("Невідома операція: " + operation);
+        }
+    }
+
+    private static Calculator requireCalculator() {
+        if (jobCalculator == null) throw new IllegalStateException("Спочатку виконайте generate або load");
+        return jobCalculator;
+    }
+}
\ No newline at end of file
@@ -1,8 +1,16 @@
 package task2;
 
+import java.io.*;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.stream.IntStream;
 class Main4 {
     public static void main(String[] args) {
+        // Пакетний режим: Main4 --batch [файл]; без файлу сторони читаються зі стандартного вводу
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(args.length > 1 ? args[1] : null);
+            return;
+        }
         // Використання try-with-resources для автоматичного закриття Scanner
         try (Scanner scanner = new Scanner(System.in)) {
             // Запит користувача ввести довжину сторони у двійковій системі
@@ -16,6 +24,36 @@ class Main4 {
             calculator.calculateAndPrintAreas();
         }
     }
+
+    /**
+     * Пакетне обчислення площ для всіх сторін з файлу або стандартного вводу
+     * @param filename шлях до файлу або null для стандартного вводу
+     */
+    private static void runBatch(String filename) {
+        long start = System.nanoTime();
+        try (InputStream in = filename == null ? System.in : new FileInputStream(filename)) {
+            GeometryBatchCalculator calculator = GeometryBatchCalculator.read(in);
+            long parsed = System.nanoTime();
+            GeometryBatchCalculator.BatchResult result = calculator.calculate();
+            long done = System.nanoTime();
+            result.print();
+            System.out.printf("Час читання: %.3f мс, час обчислення: %.3f мс%n",
+                    (parsed - start) / 1e6, (done - parsed) / 1e6);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Помилка пакетної обробки: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Пакетне обчислення площ для неінтерактивної операції geometry
+     * @param filename шлях до файлу або null для стандартного вводу
+     * @throws IOException якщо виникає помилка читання вхідних даних
+     */
+    static void calculateBatch(String filename) throws IOException {
+        try (InputStream in = filename == null ? System.in : new FileInputStream(filename)) {
+            GeometryBatchCalculator.read(in).calculate().print();
+        }
+    }
 }
 /**
  * Клас для обчислення площ геометричних фігур
@@ -44,10 +82,169 @@ class GeometryCalculator {
     }
     private double calculateTriangleArea() {
         // Формула для обчислення площі рівностороннього трикутника
-        return (Math.sqrt(3) / 4) * side * side;
+        return GeometryBatchCalculator.TRIANGLE_FACTOR * side * side;
     }
     private double calculateRectangleArea() {
         // Формула для обчислення площі квадрата
-        return side * side;
+        return (double) side * side;
+    }
+}
+/**
+ * Клас для пакетного обчислення площ для великої кількості сторін.
+ * Сторони зберігаються у примітивному масиві, обробляються паралельними блоками,
+ * а замість виведення кожного результату повертаються агреговані значення.
+ */
+class GeometryBatchCalculator {
+    // Коефіцієнт площі рівностороннього трикутника, обчислений один раз
+    static final double TRIANGLE_FACTOR = Math.sqrt(3) / 4;
+    // Розмір блоку для паралельної обробки
+    private static final int CHUNK_SIZE = 1 << 16;
+    // Розмір буфера для читання вхідних даних
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int[] sides; // Довжини сторін
+    private final int count; // Кількість заповнених елементів масиву
+
+    /**
+     * Конструктор пакетного калькулятора
+     * @param sides масив довжин сторін
+     * @param count кількість використаних елементів масиву
+     */
+    public GeometryBatchCalculator(int[] sides, int count) {
+        this.sides = sides;
+        this.count = count;
+    }
+
+    /**
+     * Читає двійкові довжини сторін, розділені пробілами або переведеннями рядка.
+     * Розбір виконується напряму з байтового буфера без створення рядків.
+     * @param in потік вхідних даних
+     * @return калькулятор з прочитаними сторонами
+     * @throws IOException якщо виникає помилка читання
+     * @throws NumberFormatException якщо у вхідних даних є некоректний символ або переповнення
+     */
+    public static GeometryBatchCalculator read(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int[] sides = new int[1024];
+        int count = 0;
+        int value = 0;
+        boolean inToken = false;
+        long position = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++, position++) {
+                byte b = buffer[i];
+                if (b == '0' || b == '1') {
+                    // Перевірка переповнення перед зсувом (як у Integer.parseInt)
+                    if ((value & 0xC0000000) != 0) {
+                        throw new NumberFormatException("Переповнення числа у позиції " + position);
+                    }
+                    value = (value << 1) | (b - '0');
+                    inToken = true;
+                } else if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',') {
+                    if (inToken) {
+                        if (count == sides.length) sides = Arrays.copyOf(sides, count * 2);
+                        sides[count++] = value;
+                        value = 0;
+                        inToken = false;
+                    }
+                } else {
+                    throw new NumberFormatException("Некоректний символ у позиції " + position);
+                }
+            }
+        }
+        if (inToken) {
+            if (count == sides.length) sides = Arrays.copyOf(sides, count + 1);
+            sides[count++] = value;
+        }
+        return new GeometryBatchCalculator(sides, count);
+    }
+
+    /**
+     * Обчислює агреговані площі паралельними блоками.
+     * Часткові результати об'єднуються у фіксованому порядку, тому результат не залежить від кількості потоків.
+     * @return агрегований результат
+     */
+    public BatchResult calculate() {
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        BatchResult[] partial = new BatchResult[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * CHUNK_SIZE;
+            partial[c] = calculateChunk(from, from + Math.min(CHUNK_SIZE, count - from));
+        });
+
+        BatchResult total = new BatchResult(0, 0.0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        for (BatchResult result : partial) {
+            total = total.combine(result);
+        }
+        return total;
+    }
+
+    /**
+     * Обчислює суму квадратів сторін у блоці простим циклом по примітивному масиву
+     * @param from початковий індекс (включно)
+     * @param to кінцевий індекс (не включно)
+     * @return частковий результат блоку
+     */
+    private BatchResult calculateChunk(int from, int to) {
+        double squareSum = 0.0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            int side = sides[i];
+            double s = side;
+            squareSum += s * s;
+            min = Math.min(min, side);
+            max = Math.max(max, side);
+        }
+        return new BatchResult(to - from, squareSum, min, max);
+    }
+
+    /**
+     * Агрегований результат пакетного обчислення
+     */
+    static final class BatchResult {
+        private final long count;
+        private final double squareAreaSum;
+        private final int minSide;
+        private final int maxSide;
+
+        BatchResult(long count, double squareAreaSum, int minSide, int maxSide) {
+            this.count = count;
+            this.squareAreaSum = squareAreaSum;
+            this.minSide = minSide;
+            this.maxSide = maxSide;
+        }
+
+        /**
+         * Об'єднує два часткові результати
+         * @param other інший результат
+         * @return новий об'єднаний результат
+         */
+        BatchResult combine(BatchResult other) {
+            return new BatchResult(count + other.count, squareAreaSum + other.squareAreaSum,
+                    Math.min(minSide, other.minSide), Math.max(maxSide, other.maxSide));
+        }
+
+        public long getCount() { return count; }
+        public double getSquareAreaSum() { return squareAreaSum; }
+        // Площа трикутника пропорційна квадрату сторони, тому коефіцієнт застосовується до суми один раз
+        public double getTriangleAreaSum() { return TRIANGLE_FACTOR * squareAreaSum; }
+
+        /**
+         * Виводить агреговані результати одним блоком
+         */
+        public void print() {
+            if (count == 0) {
+                System.out.println("Жодної сторони не введено.");
+                return;
+            }
+            double triangle = getTriangleAreaSum();
+            System.out.println("Кількість сторін: " + count);
+            System.out.println("Мінімальна сторона: " + minSide + ", максимальна сторона: " + maxSide);
+            System.out.println("Сума площ трикутників: " + String.format("%.2f", triangle));
+            System.out.println("Сума площ квадратів: " + String.format("%.2f", squareAreaSum));
+            System.out.println("Загальна сума площ: " + String.format("%.2f", triangle + squareAreaSum));
+        }
     }
 }
\ No newline at end of file
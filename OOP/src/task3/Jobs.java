@@ -0,0 +1,20 @@
+package task3;
+
+import java.util.Map;
+
+/**
+ * Точка входу неінтерактивних операцій завдання 3 для запуску з task1.Main.
+ * Операції та їхній стан належать класу Main.
+ */
+public final class Jobs {
+    private Jobs() {}
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, process, save, load, render)
+     * @param options параметри у вигляді ключ=значення
+     */
+    public static void run(String operation, Map<String, String> options) {
+        Main.run(operation, options);
+    }
+}
\ No newline at end of file
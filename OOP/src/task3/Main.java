@@ -1,7 +1,16 @@
 package task3;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import static task1.JobOptions.intOption;
 /**
  * Інтерфейс для відображення результатів обчислень
  */
@@ -39,7 +48,7 @@ class ConsoleResultDisplay implements ResultDisplay {
         System.out.println("Таблиця чисел:");
         data.printTable();
         System.out.println("Сума: " + data.getResult());
-        System.out.println("Кількість чисел: " + data.getNumbers().size());
+        System.out.println("Кількість чисел: " + data.size());
     }
 }
 
@@ -63,19 +72,44 @@ class ConsoleResultDisplayFactory extends ResultDisplayFactory {
  * Реалізує інтерфейс ResultDisplay
  */
 class FileResultDisplay implements ResultDisplay {
+    private final Path target; // Файл для запису результатів
+
+    /**
+     * Створює відображення у файл results.txt
+     */
+    public FileResultDisplay() {
+        this(Path.of("results.txt"));
+    }
+
+    /**
+     * Створює відображення у заданий файл
+     * @param target шлях до файлу
+     */
+    public FileResultDisplay(Path target) {
+        this.target = target;
+    }
+
     /**
-     * Відображає базову інформацію про дані у файл results.txt
+     * Відображає базову інформацію про дані у файл.
+     * Числа кодуються напряму у байтовий буфер без створення рядків.
      * @param data дані для запису у файл
      */
     @Override
     public void displayBasic(Data data) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("results.txt"))) {
-            writer.write("Результати обчислень:\n");
-            writer.write("Таблиця чисел:\n");
-            data.printTable(writer);
-            writer.write("Сума: " + data.getResult());
+        try (AsciiChannelWriter writer = new AsciiChannelWriter(target)) {
+            writer.writeText("Результати обчислень:\n");
+            writer.writeText("Таблиця чисел:\n");
+            int size = data.size();
+            for (int i = 0; i < size; i++) {
+                writer.writeInt(data.get(i), 4);
+                writer.writeByte(' ');
+                if ((i + 1) % 3 == 0) writer.newLine();
+            }
+            writer.writeText("Сума: ");
+            writer.writeInt(data.getResult(), 0);
             writer.newLine();
-            writer.write("Кількість чисел: " + data.getNumbers().size());
+            writer.writeText("Кількість чисел: ");
+            writer.writeInt(size, 0);
         } catch (IOException e) {
             System.err.println("Помилка збереження у файл: " + e.getMessage());
         }
@@ -87,9 +121,247 @@ class FileResultDisplay implements ResultDisplay {
  * Розширює абстрактний клас ResultDisplayFactory
  */
 class FileResultDisplayFactory extends ResultDisplayFactory {
+    private final Path target; // Файл для запису результатів
+
+    /**
+     * Фабрика для запису у файл results.txt
+     */
+    public FileResultDisplayFactory() {
+        this(Path.of("results.txt"));
+    }
+
+    /**
+     * Фабрика для запису у заданий файл
+     * @param target шлях до файлу
+     */
+    public FileResultDisplayFactory(Path target) {
+        this.target = target;
+    }
+
     @Override
     public ResultDisplay createDisplay() {
-        return new FileResultDisplay();
+        return new FileResultDisplay(target);
+    }
+}
+
+/**
+ * Запис тексту і чисел у файл через FileChannel.
+ * Числа кодуються як ASCII-цифри напряму у прямий ByteBuffer з пулу,
+ * тому запис великих наборів даних не створює проміжних рядків.
+ */
+class AsciiChannelWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16; // Розмір буфера запису
+    private static final int MAX_POOLED = 4; // Скільки буферів зберігати для повторного використання
+    // Пул прямих буферів: виділення прямої пам'яті дороге, тому буфери використовуються повторно
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean closed; // Повторне закриття не повертає той самий буфер до пулу вдруге
+
+    /**
+     * Відкриває файл для запису (вміст файлу замінюється)
+     * @param target шлях до файлу
+     * @throws IOException якщо файл не вдається відкрити
+     */
+    public AsciiChannelWriter(Path target) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer pooled = POOL.poll();
+        if (pooled != null) {
+            POOLED.decrementAndGet();
+            this.buffer = pooled;
+        } else {
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Записує ціле число, вирівняне по правому краю до заданої ширини
+     * @param value число
+     * @param width мінімальна ширина (0 - без вирівнювання)
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void writeInt(int value, int width) throws IOException {
+        long v = value; // long, щоб коректно обробити Integer.MIN_VALUE
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        int length = negative ? 2 : 1;
+        for (long t = v; t >= 10; t /= 10) length++;
+        int total = Math.max(length, width);
+        ensureCapacity(total);
+        for (int i = length; i < width; i++) buffer.put((byte) ' ');
+        if (negative) buffer.put((byte) '-');
+        // Цифри записуються справа наліво на свої позиції
+        int end = buffer.position() + length - (negative ? 1 : 0);
+        for (int p = end - 1; p >= buffer.position(); p--) {
+            buffer.put(p, (byte) ('0' + v % 10));
+            v /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Записує один ASCII-символ
+     * @param b символ
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void writeByte(char b) throws IOException {
+        ensureCapacity(1);
+        buffer.put((byte) b);
+    }
+
+    /**
+     * Записує системний розділювач рядків
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void newLine() throws IOException {
+        ensureCapacity(LINE_SEPARATOR.length);
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Записує текст у кодуванні UTF-8 (для підписів і заголовків)
+     * @param text текст
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) flush();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (buffer.remaining() < length) flush();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Дописує залишок буфера, закриває файл і повертає буфер до пулу; повторний виклик нічого не робить
+     * @throws IOException якщо виникає помилка запису
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flush();
+        } finally {
+            buffer.clear();
+            if (POOLED.incrementAndGet() <= MAX_POOLED) {
+                POOL.offer(buffer);
+            } else {
+                POOLED.decrementAndGet();
+            }
+            channel.close();
+        }
+    }
+}
+
+/**
+ * Рендерер таблиці чисел без рамок: кожне число вирівнюється по правому краю
+ * у клітинці заданої ширини, після кожних columns чисел — новий рядок.
+ * Числа форматуються напряму у байтовий буфер, що використовується повторно,
+ * а виводяться великими блоками замість окремого printf для кожного числа.
+ */
+class TableRenderer {
+    private static final int BUFFER_SIZE = 1 << 16; // Розмір буфера виведення
+
+    private final int columns;
+    private final int cellWidth;
+    private final String lineSeparator = System.lineSeparator();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[11]; // Цифри одного числа (з урахуванням знака)
+    private char[] chars; // Буфер символів для запису через Writer
+    private int position;
+
+    /**
+     * Конструктор рендерера
+     * @param columns кількість чисел у рядку
+     * @param cellWidth мінімальна ширина числа
+     */
+    public TableRenderer(int columns, int cellWidth) {
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+    }
+
+    /**
+     * Виводить таблицю у байтовий потік (наприклад, System.out)
+     * @param numbers числа для виведення
+     * @param out потік виведення
+     */
+    public void render(List<Integer> numbers, PrintStream out) {
+        for (int i = 0; i < numbers.size(); i++) {
+            if (position + cellWidth + digits.length + 2 > buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            appendCell(numbers.get(i), (i + 1) % columns == 0);
+        }
+        out.write(buffer, 0, position);
+        out.flush();
+        position = 0;
+    }
+
+    /**
+     * Виводить таблицю у символьний потік (наприклад, файл)
+     * @param numbers числа для виведення
+     * @param writer потік виведення
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void render(List<Integer> numbers, Writer writer) throws IOException {
+        if (chars == null) chars = new char[BUFFER_SIZE];
+        for (int i = 0; i < numbers.size(); i++) {
+            if (position + cellWidth + digits.length + 2 > buffer.length) {
+                writeChars(writer);
+            }
+            appendCell(numbers.get(i), (i + 1) % columns == 0);
+        }
+        writeChars(writer);
+    }
+
+    /**
+     * Додає число з вирівнюванням і пробілом, а за потреби — перехід на новий рядок
+     * @param value число
+     * @param endOfRow чи є клітинка останньою у рядку
+     */
+    private void appendCell(int value, boolean endOfRow) {
+        int index = digits.length;
+        long v = value; // long, щоб коректно обробити Integer.MIN_VALUE
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        do {
+            digits[--index] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (negative) digits[--index] = '-';
+        int length = digits.length - index;
+        for (int i = length; i < cellWidth; i++) buffer[position++] = ' ';
+        System.arraycopy(digits, index, buffer, position, length);
+        position += length;
+        buffer[position++] = ' ';
+        if (endOfRow) {
+            for (int i = 0; i < lineSeparator.length(); i++) buffer[position++] = (byte) lineSeparator.charAt(i);
+        }
+    }
+
+    private void writeChars(Writer writer) throws IOException {
+        // Усі символи таблиці належать до ASCII, тому байт напряму відповідає символу
+        for (int i = 0; i < position; i++) chars[i] = (char) buffer[i];
+        writer.write(chars, 0, position);
+        position = 0;
     }
 }
 
@@ -113,6 +385,19 @@ class Data implements Serializable {
      */
     public List<Integer> getNumbers() { return Collections.unmodifiableList(numbers); }
 
+    /**
+     * Повертає кількість чисел без створення обгортки над списком
+     * @return кількість чисел
+     */
+    public int size() { return numbers.size(); }
+
+    /**
+     * Повертає число за індексом без створення обгортки над списком
+     * @param index індекс числа
+     * @return число
+     */
+    public int get(int index) { return numbers.get(index); }
+
     /**
      * Повертає результат обчислень (суму)
      * @return сума чисел
@@ -124,10 +409,7 @@ class Data implements Serializable {
      * Розбиває числа на рядки по 3 числа в кожному
      */
     public void printTable() {
-        for (int i = 0; i < numbers.size(); i++) {
-            System.out.printf("%4d ", numbers.get(i));
-            if ((i + 1) % 3 == 0) System.out.println();
-        }
+        new TableRenderer(3, 4).render(numbers, System.out);
     }
 
     /**
@@ -137,10 +419,7 @@ class Data implements Serializable {
      * @throws IOException якщо виникає помилка вводу/виводу
      */
     public void printTable(BufferedWriter writer) throws IOException {
-        for (int i = 0; i < numbers.size(); i++) {
-            writer.write(String.format("%4d ", numbers.get(i)));
-            if ((i + 1) % 3 == 0) writer.newLine();
-        }
+        new TableRenderer(3, 4).render(numbers, writer);
     }
 
     /**
@@ -229,15 +508,18 @@ class Calculator {
      * @param filename ім'я файлу для збереження
      */
     public void saveData(String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            for (Integer num : data.getNumbers()) {
-                writer.write(num + " ");
+        try (AsciiChannelWriter writer = new AsciiChannelWriter(Path.of(filename))) {
+            int size = data.size();
+            for (int i = 0; i < size; i++) {
+                writer.writeInt(data.get(i), 0);
+                writer.writeByte(' ');
             }
             writer.newLine();
-            writer.write("Сума: " + data.getResult());
+            writer.writeText("Сума: ");
+            writer.writeInt(data.getResult(), 0);
             writer.newLine();
             System.out.println("Дані успішно збережено.");
-        } catch (IOException e) {
+        } catch (IOException | InvalidPathException e) {
             System.err.println("Помилка збереження: " + e.getMessage());
         }
     }
@@ -263,6 +545,9 @@ class Calculator {
  * Головний клас програми
  */
 public class Main {
+    // Стан неінтерактивних операцій (run), що зберігається між операціями одного запуску
+    private static final List<Integer> jobNumbers = new ArrayList<>(); // Поточні числа
+
     /**
      * Головний метод програми
      * @param args аргументи командного рядка
@@ -309,4 +594,41 @@ public class Main {
         }
         scanner.close();
     }
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, process, save, load, render)
+     * @param options параметри у вигляді ключ=значення
+     */
+    static void run(String operation, Map<String, String> options) {
+        switch (operation) {
+            case "generate" -> {
+                int count = intOption(options, "count", 9);
+                int bound = intOption(options, "bound", 100);
+                Random random = new Random(intOption(options, "seed", 42));
+                jobNumbers.clear();
+                for (int i = 0; i < count; i++) {
+                    jobNumbers.add(random.nextInt(bound));
+                }
+                System.out.println("Згенеровано чисел: " + count);
+            }
+            case "process" -> System.out.println("Сума: " + new Data(jobNumbers).getResult());
+            case "save" -> new Calculator(jobNumbers, new ConsoleResultDisplayFactory())
+                    .saveData(options.getOrDefault("file", "data.txt"));
+            case "load" -> {
+                Data data = Data.loadDataFromFile(options.getOrDefault("file", "data.txt"));
+                jobNumbers.clear();
+                jobNumbers.addAll(data.getNumbers());
+                System.out.println("Завантажено чисел: " + jobNumbers.size());
+            }
+            case "render" -> {
+                // target=file виводить у файл (file=..., за замовчуванням results.txt) через FileResultDisplay
+                ResultDisplayFactory factory = "file".equals(options.get("target"))
+                        ? new FileResultDisplayFactory(Path.of(options.getOrDefault("file", "results.txt")))
+                        : new ConsoleResultDisplayFactory();
+                new Calculator(jobNumbers, factory).displayResults();
+            }
+            default -> throw new IllegalArgumentException("Невідома операція: " + operation);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package task4;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Точка входу неінтерактивних операцій завдання 4 для запуску з task1.Main.
+ * Операції та їхній стан належать класу Main.
+ */
+public final class Jobs {
+    private Jobs() {}
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, process, render, page, save)
+     * @param options параметри у вигляді ключ=значення
+     * @throws IOException якщо виникає помилка запису файлу
+     */
+    public static void run(String operation, Map<String, String> options) throws IOException {
+        Main.run(operation, options);
+    }
+}
\ No newline at end of file
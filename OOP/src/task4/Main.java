@@ -1,7 +1,18 @@
 package task4;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import static task1.JobOptions.intOption;
 
 /**
  * Інтерфейс для відображення результатів обчислень.
@@ -21,6 +32,16 @@ interface ResultDisplay {
      * @param cellWidth Ширина комірки таблиці
      */
     void displayCustomTable(Data data, int columns, int cellWidth);
+
+    /**
+     * Посторінкове відображення: виводяться лише рядки таблиці з заданого вікна.
+     * @param data Об'єкт з даними для відображення
+     * @param columns Кількість стовпців у таблиці
+     * @param cellWidth Ширина комірки таблиці
+     * @param startRow Номер першого рядка сторінки (з нуля)
+     * @param pageRows Кількість рядків на сторінці
+     */
+    void displayPage(Data data, int columns, int cellWidth, int startRow, int pageRows);
 }
 
 /**
@@ -44,75 +65,539 @@ abstract class ResultDisplayFactory implements DisplayFactory {
 
 /**
  * Реалізація виведення результатів у консоль.
+ * Не має власного стану, тому один екземпляр спільно використовується всіма калькуляторами;
+ * готові таблиці зберігаються у спільному RenderCache.
  */
 class ConsoleResultDisplay implements ResultDisplay {
-    private static final String DEFAULT_FILE_PATH = "C:\\Users\\Еля\\Desktop\\ООП\\OOP.Bohomaz.txt";
-
     @Override
     public void displayBasic(Data data) {
-        printSimpleTable(data.getNumbers(), 4, 5);
+        printSimpleTable(data, 4, 5);
         System.out.println("Сума: " + data.getResult());
-        System.out.println("Кількість чисел: " + data.getNumbers().size());
-
-        saveTableToFile(data.getNumbers(), 4, 5);
+        System.out.println("Кількість чисел: " + data.size());
     }
 
     @Override
     public void displayCustomTable(Data data, int columns, int cellWidth) {
         System.out.println("Налаштована таблиця:");
-        List<Integer> numbers = data.getNumbers();
-
-        printHorizontalLine(columns, cellWidth);
-
-        for (int i = 0; i < numbers.size(); i++) {
-            System.out.printf("| %" + (cellWidth - 2) + "d ", numbers.get(i));
-
-            if ((i + 1) % columns == 0 || i == numbers.size() - 1) {
-                System.out.println("|");
-                printHorizontalLine(columns, cellWidth);
+        try {
+            // Повторний перегляд тих самих даних з тими самими параметрами - лише копіювання готових байтів
+            byte[] table = RenderCache.getInstance().table(data, columns, cellWidth);
+            if (table != null) {
+                System.out.write(table, 0, table.length);
+                System.out.flush();
+            } else {
+                new TableRenderer(System.out, columns, cellWidth).render(data, 0, data.size());
             }
+        } catch (IOException e) {
+            System.err.println("Помилка виведення таблиці: " + e.getMessage());
         }
+    }
 
-        saveCustomTableToFile(numbers, columns, cellWidth);
+    @Override
+    public void displayPage(Data data, int columns, int cellWidth, int startRow, int pageRows) {
+        if (columns < 1 || pageRows < 1) {
+            System.out.println("Кількість стовпців і рядків має бути додатною.");
+            return;
+        }
+        int totalRows = (data.size() + columns - 1) / columns;
+        if (startRow < 0 || startRow >= totalRows) {
+            System.out.println("Немає даних для рядка " + startRow + " (рядків у таблиці: " + totalRows + ")");
+            return;
+        }
+        int from = startRow * columns;
+        int to = Math.min(data.size(), from + pageRows * columns);
+        System.out.println("Сторінка " + (startRow / pageRows + 1) + " з " + Math.max(1, (totalRows + pageRows - 1) / pageRows)
+                + " (рядки " + (startRow + 1) + "-" + (startRow + (to - from + columns - 1) / columns) + " з " + totalRows + ")");
+        try {
+            // Читаються лише числа сторінки, тому вартість перегляду не залежить від розміру даних
+            new TableRenderer(System.out, columns, cellWidth).render(data, from, to);
+        } catch (IOException e) {
+            System.err.println("Помилка виведення таблиці: " + e.getMessage());
+        }
     }
 
-    // Методи збереження та друку залишаються без змін
-    private void saveTableToFile(List<Integer> numbers, int columns, int cellWidth) { /* ... */ }
-    private void saveCustomTableToFile(List<Integer> numbers, int columns, int cellWidth) { /* ... */ }
-    private void printSimpleTable(List<Integer> numbers, int columns, int cellWidth) { /* ... */ }
-    private void printHorizontalLine(int columns, int cellWidth) { /* ... */ }
+    // Метод друку залишається без змін
+    private void printSimpleTable(Data data, int columns, int cellWidth) { /* ... */ }
 }
 
 /**
  * Фабрика для створення консольного displея результатів.
  */
 class ConsoleResultDisplayFactory extends ResultDisplayFactory {
+    private static final ResultDisplay DISPLAY = new ConsoleResultDisplay(); // Спільний екземпляр без стану
+
     @Override
     public ResultDisplay createDisplay() {
-        return new ConsoleResultDisplay();
+        return DISPLAY;
+    }
+}
+
+/**
+ * Кеш готових текстових таблиць з обмеженням сумарного розміру.
+ * Ключ - версія знімка даних, кількість стовпців і ширина клітинки. Data незмінна,
+ * тому збережені байти лишаються дійсними весь час; найдавніше використані таблиці
+ * витісняються, коли сумарний розмір перевищує ліміт.
+ */
+final class RenderCache {
+    private static final long MAX_BYTES = 16L << 20; // Ліміт сумарного розміру таблиць (16 МБ)
+    private static final RenderCache INSTANCE = new RenderCache(MAX_BYTES);
+
+    private record Key(long version, int columns, int cellWidth) {}
+
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true); // Порядок доступу
+    private final long maxBytes;
+    private long totalBytes;
+
+    private RenderCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Отримання спільного кешу
+     * @return єдиний екземпляр кешу
+     */
+    public static RenderCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Повертає готову таблицю, за потреби відтворюючи її і зберігаючи у кеші
+     * @param data дані
+     * @param columns кількість стовпців
+     * @param cellWidth ширина клітинки
+     * @return байти таблиці або null, якщо таблиця завелика для кешу і її слід виводити потоком
+     * @throws IOException якщо виникає помилка відтворення
+     */
+    public byte[] table(Data data, int columns, int cellWidth) throws IOException {
+        byte[] table = find(data, columns, cellWidth);
+        if (table != null) return table;
+        // Кожна клітинка займає щонайменше cellWidth байтів, тож завеликі таблиці видно одразу
+        if ((long) data.size() * cellWidth > maxBytes) return null;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TableRenderer(out, columns, cellWidth).render(data, 0, data.size());
+        table = out.toByteArray();
+        put(new Key(data.getVersion(), columns, cellWidth), table);
+        return table;
+    }
+
+    /**
+     * Шукає таблицю у кеші без відтворення
+     * @param data дані
+     * @param columns кількість стовпців
+     * @param cellWidth ширина клітинки
+     * @return байти таблиці або null, якщо її немає у кеші
+     */
+    public synchronized byte[] find(Data data, int columns, int cellWidth) {
+        return entries.get(new Key(data.getVersion(), columns, cellWidth));
+    }
+
+    private synchronized void put(Key key, byte[] table) {
+        if (table.length > maxBytes) return;
+        byte[] previous = entries.put(key, table);
+        totalBytes += table.length - (previous == null ? 0 : previous.length);
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes) {
+            totalBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+}
+
+/**
+ * Рендерер таблиці чисел у вигляді рядків "| число |" з горизонтальними лініями.
+ * Числа форматуються напряму у байтовий буфер, що використовується повторно,
+ * а у вихідний потік записуються великими блоками замість окремого printf для кожної клітинки.
+ */
+class TableRenderer {
+    private static final int BUFFER_SIZE = 1 << 16; // Розмір буфера виведення
+    static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final int columns;
+    private final int cellWidth;
+    private final byte[] separatorLine; // Готова горизонтальна лінія з переведенням рядка
+    private final byte[] buffer;
+    private final byte[] digits = new byte[11]; // Цифри одного числа (з урахуванням знака)
+    private int position;
+
+    /**
+     * Конструктор рендерера
+     * @param out потік для виведення
+     * @param columns кількість стовпців
+     * @param cellWidth ширина клітинки (щонайменше 3 символи)
+     */
+    public TableRenderer(OutputStream out, int columns, int cellWidth) {
+        if (columns < 1 || cellWidth < 3) {
+            throw new IllegalArgumentException("Некоректні параметри таблиці: " + columns + " x " + cellWidth);
+        }
+        this.out = out;
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+        this.separatorLine = new byte[columns * cellWidth + LINE_SEPARATOR.length];
+        Arrays.fill(separatorLine, 0, columns * cellWidth, (byte) '-');
+        System.arraycopy(LINE_SEPARATOR, 0, separatorLine, columns * cellWidth, LINE_SEPARATOR.length);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, separatorLine.length + cellWidth + digits.length + 4)];
+    }
+
+    /**
+     * Виводить таблицю з чисел діапазону; діапазон має починатися з початку рядка
+     * @param data дані для виведення
+     * @param from початковий індекс (включно)
+     * @param to кінцевий індекс (не включно)
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void render(Data data, int from, int to) throws IOException {
+        appendLine();
+        PrimitiveIterator.OfInt cursor = data.cursor(from, to);
+        for (int i = from; i < to; i++) {
+            appendCell(cursor.nextInt());
+            // Перехід на новий рядок після заповнення рядка або в кінці діапазону
+            if ((i + 1 - from) % columns == 0 || i == to - 1) {
+                append((byte) '|');
+                append(LINE_SEPARATOR);
+                appendLine();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Додає клітинку "| число " з вирівнюванням числа по правому краю
+     * @param value число
+     */
+    private void appendCell(int value) throws IOException {
+        int length = formatDigits(value, digits);
+        int padding = cellWidth - 2 - length;
+        ensureCapacity(3 + Math.max(padding, 0) + length);
+        buffer[position++] = '|';
+        buffer[position++] = ' ';
+        for (int i = 0; i < padding; i++) buffer[position++] = ' ';
+        System.arraycopy(digits, digits.length - length, buffer, position, length);
+        position += length;
+        buffer[position++] = ' ';
+    }
+
+    /**
+     * Записує десяткові цифри числа у кінець масиву digits
+     * @param value число
+     * @param digits масив щонайменше з 11 байтів
+     * @return кількість записаних символів
+     */
+    static int formatDigits(int value, byte[] digits) {
+        int index = digits.length;
+        long v = value; // long, щоб коректно обробити Integer.MIN_VALUE
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        do {
+            digits[--index] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (negative) digits[--index] = '-';
+        return digits.length - index;
+    }
+
+    private void appendLine() throws IOException {
+        ensureCapacity(separatorLine.length);
+        System.arraycopy(separatorLine, 0, buffer, position, separatorLine.length);
+        position += separatorLine.length;
+    }
+
+    private void append(byte b) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    private void append(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) flush();
+    }
+
+    /**
+     * Записує накопичені байти у потік одним викликом
+     * @throws IOException якщо виникає помилка запису
+     */
+    private void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+}
+
+/**
+ * Формати експорту таблиці.
+ */
+enum ExportFormat {
+    /** Текстова таблиця з рамками фіксованої ширини */
+    TEXT,
+    /** Значення через кому, по columns у рядку */
+    CSV,
+    /** Заголовок "TBL1", кількість стовпців і чисел, далі числа як int32 (big-endian) */
+    BINARY
+}
+
+/**
+ * Експорт таблиці у файл.
+ * Рядки діляться на блоки, кожен блок паралельно кодується у власний буфер,
+ * після чого буфери записуються у файл по порядку одним зібраним записом FileChannel.
+ * Запис іде хвилями, тому в пам'яті одночасно тримається лише кілька блоків.
+ */
+class TableExporter {
+    private static final int ROWS_PER_CHUNK = 1 << 13; // Кількість рядків в одному блоці
+    private static final int MAX_DIGITS = 11; // Найдовше число: -2147483648
+
+    private final ExportFormat format;
+    private final int columns;
+    private final int cellWidth;
+
+    /**
+     * Конструктор експортера
+     * @param format формат файлу
+     * @param columns кількість стовпців
+     * @param cellWidth ширина клітинки (для текстового формату, щонайменше 3)
+     */
+    public TableExporter(ExportFormat format, int columns, int cellWidth) {
+        if (columns < 1 || (format == ExportFormat.TEXT && cellWidth < 3)) {
+            throw new IllegalArgumentException("Некоректні параметри таблиці: " + columns + " x " + cellWidth);
+        }
+        this.format = format;
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+    }
+
+    /**
+     * Записує всі числа у файл, замінюючи його попередній вміст.
+     * Таблиця спершу пишеться у тимчасовий файл поруч і лише потім переміщується на місце,
+     * тому помилка запису не залишає обрізаний файл.
+     * @param data дані для експорту
+     * @param path шлях до файлу
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void export(Data data, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            write(data, temporary);
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void write(Data data, Path path) throws IOException {
+        int size = data.size();
+        int rows = (size + columns - 1) / columns;
+        int chunks = (rows + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+        int wave = Math.max(1, Runtime.getRuntime().availableProcessors() * 2); // Блоків в одній хвилі
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, new ByteBuffer[]{header(size)});
+            for (int first = 0; first < chunks; first += wave) {
+                int start = first;
+                ByteBuffer[] buffers = IntStream.range(start, Math.min(chunks, start + wave))
+                        .parallel()
+                        .mapToObj(chunk -> {
+                            int from = chunk * ROWS_PER_CHUNK * columns;
+                            int to = (int) Math.min(size, (long) (chunk + 1) * ROWS_PER_CHUNK * columns);
+                            return encode(data, from, to);
+                        })
+                        .toArray(ByteBuffer[]::new); // Порядок блоків зберігається
+                writeFully(channel, buffers);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) remaining += buffer.remaining();
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    /**
+     * Початок файлу: верхня лінія таблиці або двійковий заголовок
+     * @param size кількість чисел
+     * @return буфер із заголовком (може бути порожнім)
+     */
+    private ByteBuffer header(int size) {
+        return switch (format) {
+            case TEXT -> separatorLine(ByteBuffer.allocate(columns * cellWidth + TableRenderer.LINE_SEPARATOR.length)).flip();
+            case CSV -> ByteBuffer.allocate(0);
+            case BINARY -> ByteBuffer.allocate(12)
+                    .put((byte) 'T').put((byte) 'B').put((byte) 'L').put((byte) '1')
+                    .putInt(columns).putInt(size).flip();
+        };
+    }
+
+    /**
+     * Кодує числа з діапазону [from, to) у новий буфер; діапазон починається з початку рядка
+     * @param data дані
+     * @param from початковий індекс
+     * @param to кінцевий індекс
+     * @return заповнений буфер, готовий до запису
+     */
+    private ByteBuffer encode(Data data, int from, int to) {
+        int count = to - from;
+        int rows = (count + columns - 1) / columns;
+        byte[] digits = new byte[MAX_DIGITS];
+        byte[] separator = TableRenderer.LINE_SEPARATOR;
+        ByteBuffer buffer;
+        switch (format) {
+            case TEXT -> {
+                // Клітинка "| " + вирівнювання + цифри + " ": cellWidth + 1 байт або більше для довгого числа
+                int cell = Math.max(cellWidth + 1, MAX_DIGITS + 3);
+                buffer = ByteBuffer.allocate(count * cell + rows * (columns * cellWidth + 1 + 2 * separator.length));
+                for (int i = from; i < to; i++) {
+                    int length = TableRenderer.formatDigits(data.get(i), digits);
+                    buffer.put((byte) '|').put((byte) ' ');
+                    for (int p = cellWidth - 2 - length; p > 0; p--) buffer.put((byte) ' ');
+                    buffer.put(digits, digits.length - length, length).put((byte) ' ');
+                    if ((i + 1) % columns == 0 || i == to - 1) {
+                        buffer.put((byte) '|').put(separator);
+                        separatorLine(buffer);
+                    }
+                }
+            }
+            case CSV -> {
+                buffer = ByteBuffer.allocate(count * (MAX_DIGITS + separator.length));
+                for (int i = from; i < to; i++) {
+                    int length = TableRenderer.formatDigits(data.get(i), digits);
+                    buffer.put(digits, digits.length - length, length);
+                    if ((i + 1) % columns == 0 || i == to - 1) buffer.put(separator);
+                    else buffer.put((byte) ',');
+                }
+            }
+            default -> {
+                buffer = ByteBuffer.allocate(count * Integer.BYTES);
+                for (int i = from; i < to; i++) buffer.putInt(data.get(i));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private ByteBuffer separatorLine(ByteBuffer buffer) {
+        for (int i = columns * cellWidth; i > 0; i--) buffer.put((byte) '-');
+        return buffer.put(TableRenderer.LINE_SEPARATOR);
     }
 }
 
 /**
  * Клас для зберігання та обробки числових даних.
+ * Є незмінним знімком: після створення числа лише читаються через індекси,
+ * курсори та представлення, без копіювання всього набору.
  */
 class Data {
-    private final List<Integer> numbers;
+    private static final AtomicLong VERSIONS = new AtomicLong(); // Лічильник версій знімків
+
+    private final int[] numbers;
+    private final long version = VERSIONS.incrementAndGet(); // Унікальна версія цього знімка
 
     /**
-     * Конструктор класу Data.
+     * Конструктор класу Data: числа копіюються один раз у примітивний масив.
      * @param numbers Список чисел для обробки
      */
     public Data(List<Integer> numbers) {
-        this.numbers = new ArrayList<>(numbers);
+        this.numbers = numbers.stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
-     * Отримання списку чисел.
-     * @return Список чисел
+     * Створення знімка з масиву без копіювання.
+     * Масив переходить у власність об'єкта і не повинен змінюватися після виклику.
+     * @param numbers Масив чисел
+     */
+    Data(int[] numbers) {
+        this.numbers = numbers;
+    }
+
+    /**
+     * Версія знімка: різні об'єкти Data мають різні версії, тож версія ідентифікує вміст.
+     * @return Версія знімка
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Отримання списку чисел лише для читання (представлення без копіювання).
+     * @return Незмінний список чисел
      */
     public List<Integer> getNumbers() {
-        return new ArrayList<>(numbers);
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) { return numbers[index]; }
+            @Override
+            public int size() { return numbers.length; }
+        };
+    }
+
+    /**
+     * Кількість чисел.
+     * @return Розмір набору даних
+     */
+    public int size() {
+        return numbers.length;
+    }
+
+    /**
+     * Число за індексом (без упакування).
+     * @param index Індекс числа
+     * @return Число
+     */
+    public int get(int index) {
+        return numbers[index];
+    }
+
+    /**
+     * Курсор для послідовного читання чисел з діапазону без копіювання.
+     * @param from Початковий індекс (включно)
+     * @param to Кінцевий індекс (не включно)
+     * @return Курсор по числах
+     */
+    public PrimitiveIterator.OfInt cursor(int from, int to) {
+        Objects.checkFromToIndex(from, to, numbers.length);
+        return new PrimitiveIterator.OfInt() {
+            private int position = from;
+            @Override
+            public boolean hasNext() { return position < to; }
+            @Override
+            public int nextInt() {
+                if (position >= to) throw new NoSuchElementException();
+                return numbers[position++];
+            }
+        };
+    }
+
+    /**
+     * Потік чисел без упакування (для обробки, у тому числі паралельної).
+     * @return Потік чисел
+     */
+    public IntStream stream() {
+        return Arrays.stream(numbers);
+    }
+
+    /**
+     * Пошук першого входження числа.
+     * @param value Шукане число
+     * @return Індекс числа або -1, якщо його немає
+     */
+    public int indexOf(int value) {
+        for (int i = 0; i < numbers.length; i++) {
+            if (numbers[i] == value) return i;
+        }
+        return -1;
     }
 
     /**
@@ -120,14 +605,16 @@ class Data {
      * @return Сума чисел
      */
     public int getResult() {
-        return numbers.stream().mapToInt(Integer::intValue).sum();
+        int sum = 0;
+        for (int number : numbers) sum += number;
+        return sum;
     }
 
     /**
      * Виведення чисел у рядок.
      */
     public void printTable() {
-        numbers.forEach(num -> System.out.print(num + " "));
+        for (int number : numbers) System.out.print(number + " ");
         System.out.println();
     }
 }
@@ -145,7 +632,16 @@ class Calculator {
      * @param factory Фабрика для створення displея
      */
     public Calculator(List<Integer> numbers, DisplayFactory factory) {
-        this.data = new Data(numbers);
+        this(new Data(numbers), factory);
+    }
+
+    /**
+     * Конструктор калькулятора з готового знімка даних (без копіювання).
+     * @param data Знімок даних
+     * @param factory Фабрика для створення displея
+     */
+    public Calculator(Data data, DisplayFactory factory) {
+        this.data = data;
         this.display = factory.createDisplay();
     }
 
@@ -164,6 +660,37 @@ class Calculator {
     public void displayCustomResults(int columns, int cellWidth) {
         display.displayCustomTable(data, columns, cellWidth);
     }
+
+    /**
+     * Відображення однієї сторінки таблиці.
+     * @param columns Кількість стовпців
+     * @param cellWidth Ширина комірки
+     * @param startRow Перший рядок сторінки
+     * @param pageRows Кількість рядків на сторінці
+     */
+    public void displayPage(int columns, int cellWidth, int startRow, int pageRows) {
+        display.displayPage(data, columns, cellWidth, startRow, pageRows);
+    }
+
+    /**
+     * Збереження таблиці у файл.
+     * @param path Шлях до файлу
+     * @param format Формат файлу
+     * @param columns Кількість стовпців
+     * @param cellWidth Ширина комірки
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void saveTable(Path path, ExportFormat format, int columns, int cellWidth) throws IOException {
+        new TableExporter(format, columns, cellWidth).export(data, path);
+    }
+
+    /**
+     * Отримання даних калькулятора.
+     * @return Об'єкт Data
+     */
+    public Data getData() {
+        return data;
+    }
 }
 
 /**
@@ -221,10 +748,14 @@ class CalculatorTest {
  * Головний клас для взаємодії з користувачем.
  */
 public class Main {
+    // Стан неінтерактивних операцій (run), що зберігається між операціями одного запуску
+    private static Data jobData = new Data(new int[0]); // Поточний знімок даних
+
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
         Random random = new Random();
         List<Integer> numbers = new ArrayList<>();
+        Data data = new Data(numbers); // Знімок даних, спільний для всіх дій до наступної генерації
         boolean running = true;
 
         CalculatorTest test = new CalculatorTest();
@@ -237,7 +768,8 @@ public class Main {
             System.out.println("4 - Виконати тестування");
             System.out.println("5 - Зберегти дані");
             System.out.println("6 - Оновити дані");
-            System.out.println("7 - Вийти");
+            System.out.println("7 - Посторінковий перегляд");
+            System.out.println("8 - Вийти");
             System.out.print("Оберіть дію: ");
 
             try {
@@ -248,6 +780,7 @@ public class Main {
                         for (int i = 0; i < 12; i++) {
                             numbers.add(random.nextInt(100));
                         }
+                        data = new Data(numbers);
                         System.out.println("Згенеровані числа: " + numbers);
                     }
                     case 2 -> {
@@ -255,7 +788,7 @@ public class Main {
                             System.out.println("Спочатку згенеруйте числа!");
                             continue;
                         }
-                        Calculator calculator = new Calculator(numbers, new ConsoleResultDisplayFactory());
+                        Calculator calculator = new Calculator(data, new ConsoleResultDisplayFactory());
                         calculator.displayResults();
                     }
                     case 3 -> {
@@ -268,20 +801,149 @@ public class Main {
                         System.out.print("Введіть ширину комірки: ");
                         int cellWidth = scanner.nextInt();
 
-                        Calculator calculator = new Calculator(numbers, new ConsoleResultDisplayFactory());
+                        Calculator calculator = new Calculator(data, new ConsoleResultDisplayFactory());
                         calculator.displayCustomResults(columns, cellWidth);
                     }
                     case 4 -> test.runAllTests();
-                    case 5 -> System.out.println("Дані збережено!");
+                    case 5 -> {
+                        if (numbers.isEmpty()) {
+                            System.out.println("Спочатку згенеруйте числа!");
+                            continue;
+                        }
+                        System.out.print("Формат (1 - текст, 2 - CSV, 3 - двійковий): ");
+                        int choice = scanner.nextInt();
+                        if (choice < 1 || choice > 3) {
+                            System.out.println("Невідомий формат");
+                            continue;
+                        }
+                        ExportFormat format = ExportFormat.values()[choice - 1];
+                        System.out.print("Введіть кількість стовпців: ");
+                        int columns = scanner.nextInt();
+                        System.out.print("Введіть ширину комірки: ");
+                        int cellWidth = scanner.nextInt();
+                        System.out.print("Введіть ім'я файлу: ");
+                        String filename = scanner.next();
+                        try {
+                            new Calculator(data, new ConsoleResultDisplayFactory())
+                                    .saveTable(Path.of(filename), format, columns, cellWidth);
+                            System.out.println("Дані збережено!");
+                        } catch (IOException | IllegalArgumentException e) {
+                            System.err.println("Помилка збереження: " + e.getMessage());
+                        }
+                    }
                     case 6 -> System.out.println("Дані оновлено!");
-                    case 7 -> running = false;
+                    case 7 -> {
+                        if (numbers.isEmpty()) {
+                            System.out.println("Спочатку згенеруйте числа!");
+                            continue;
+                        }
+                        System.out.print("Введіть кількість стовпців: ");
+                        int columns = scanner.nextInt();
+                        System.out.print("Введіть ширину комірки: ");
+                        int cellWidth = scanner.nextInt();
+                        System.out.print("Введіть кількість рядків на сторінці: ");
+                        int pageRows = scanner.nextInt();
+                        browsePages(scanner, new Calculator(data, new ConsoleResultDisplayFactory()),
+                                columns, cellWidth, pageRows);
+                    }
+                    case 8 -> running = false;
                     default -> System.out.println("Невідома команда");
                 }
             } catch (InputMismatchException e) {
                 System.out.println("Помилка вводу. Введіть коректне значення.");
                 scanner.nextLine(); // Очищення буфера
+            } catch (IllegalArgumentException e) {
+                // Некоректні параметри таблиці (наприклад, ширина комірки менша за 3)
+                System.out.println("Помилка: " + e.getMessage());
             }
         }
         scanner.close();
     }
+
+    /**
+     * Посторінковий перегляд таблиці.
+     * Команди: n - наступна сторінка, p - попередня, g N - перейти до рядка N,
+     * f X - перейти до рядка з першим входженням числа X, q - повернутися до меню.
+     * @param scanner Джерело команд
+     * @param calculator Калькулятор з даними (створюється один раз на весь перегляд)
+     * @param columns Кількість стовпців
+     * @param cellWidth Ширина комірки
+     * @param pageRows Кількість рядків на сторінці
+     */
+    private static void browsePages(Scanner scanner, Calculator calculator, int columns, int cellWidth, int pageRows) {
+        if (columns < 1 || pageRows < 1) {
+            System.out.println("Кількість стовпців і рядків має бути додатною.");
+            return;
+        }
+        int totalRows = (calculator.getData().size() + columns - 1) / columns;
+        int startRow = 0;
+        while (true) {
+            calculator.displayPage(columns, cellWidth, startRow, pageRows);
+            System.out.print("n - далі, p - назад, g N - до рядка, f X - знайти число, q - меню: ");
+            String command = scanner.next();
+            switch (command) {
+                case "n" -> {
+                    if (startRow + pageRows < totalRows) startRow += pageRows;
+                }
+                case "p" -> startRow = Math.max(0, startRow - pageRows);
+                case "g" -> {
+                    int row = scanner.nextInt() - 1;
+                    startRow = Math.max(0, Math.min(row, totalRows - 1));
+                }
+                case "f" -> {
+                    int index = calculator.getData().indexOf(scanner.nextInt());
+                    if (index < 0) {
+                        System.out.println("Число не знайдено.");
+                    } else {
+                        startRow = index / columns;
+                    }
+                }
+                case "q" -> {
+                    return;
+                }
+                default -> System.out.println("Невідома команда");
+            }
+        }
+    }
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, process, render, page, save)
+     * @param options параметри у вигляді ключ=значення
+     * @throws IOException якщо виникає помилка запису файлу
+     */
+    static void run(String operation, Map<String, String> options) throws IOException {
+        switch (operation) {
+            case "generate" -> {
+                int count = intOption(options, "count", 12);
+                int bound = intOption(options, "bound", 100);
+                Random random = new Random(intOption(options, "seed", 42));
+                int[] numbers = new int[count];
+                for (int i = 0; i < count; i++) {
+                    numbers[i] = random.nextInt(bound);
+                }
+                jobData = new Data(numbers);
+                System.out.println("Згенеровано чисел: " + count);
+            }
+            case "process" -> System.out.println("Сума: " + jobData.getResult());
+            case "render" -> new Calculator(jobData, new ConsoleResultDisplayFactory())
+                    .displayCustomResults(intOption(options, "columns", 4), intOption(options, "cellWidth", 6));
+            case "page" -> new Calculator(jobData, new ConsoleResultDisplayFactory())
+                    .displayPage(intOption(options, "columns", 4), intOption(options, "cellWidth", 6),
+                            intOption(options, "start", 0), intOption(options, "rows", 20));
+            case "save" -> {
+                // Файл задається явно: інші операції нічого не записують на диск
+                String file = options.get("file");
+                if (file == null) {
+                    throw new IllegalArgumentException("Не вказано файл для збереження (file=...)");
+                }
+                ExportFormat format = ExportFormat.valueOf(options.getOrDefault("format", "text").toUpperCase());
+                new Calculator(jobData, new ConsoleResultDisplayFactory()).saveTable(
+                        Path.of(file), format,
+                        intOption(options, "columns", 4), intOption(options, "cellWidth", 6));
+                System.out.println("Таблицю збережено у форматі " + format);
+            }
+            default -> throw new IllegalArgumentException("Невідома операція: " + operation);
+        }
+    }
 }
\ No newline at end of file
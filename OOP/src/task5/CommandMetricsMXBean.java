@@ -0,0 +1,59 @@
+package task5;
+
+import java.util.Map;
+
+/**
+ * JMX-інтерфейс метрик менеджера команд (ObjectName "task5:type=CommandManager").
+ * Ключі карт - назви типів команд, тривалості - у мілісекундах.
+ */
+public interface CommandMetricsMXBean {
+    /**
+     * @return кількість поданих команд
+     */
+    long getSubmittedCount();
+
+    /**
+     * @return кількість команд, що завершилися успішно
+     */
+    long getCompletedCount();
+
+    /**
+     * @return кількість команд, що завершилися винятком
+     */
+    long getFailedCount();
+
+    /**
+     * @return кількість команд, що очікують у черзі
+     */
+    int getQueueDepth();
+
+    /**
+     * @return кількість успішних виконань за типом команди
+     */
+    Map<String, Long> getCompletedByCommand();
+
+    /**
+     * @return кількість невдалих виконань за типом команди
+     */
+    Map<String, Long> getFailedByCommand();
+
+    /**
+     * @return сумарний час виконання за типом команди
+     */
+    Map<String, Double> getTotalRunMillisByCommand();
+
+    /**
+     * @return 99-й перцентиль часу очікування в черзі за типом команди
+     */
+    Map<String, Double> getP99WaitMillisByCommand();
+
+    /**
+     * @return 99-й перцентиль часу виконання за типом команди
+     */
+    Map<String, Double> getP99RunMillisByCommand();
+
+    /**
+     * @return текстове зведення за всіма командами
+     */
+    String getSummary();
+}
\ No newline at end of file
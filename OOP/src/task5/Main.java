@@ -1,7 +1,24 @@
 package task5;
 
 import java.util.*;
+import java.util.stream.IntStream;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import static task1.JobOptions.intOption;
 
 /**
  * Інтерфейс для відображення результатів
@@ -36,29 +53,11 @@ class ConsoleResultDisplay implements ResultDisplay {
     @Override
     public void displayCustomTable(Data data, int columns, int cellWidth) {
         System.out.println("Налаштована таблиця:");
-        List<Integer> numbers = data.getNumbers();
-
-        printHorizontalLine(columns, cellWidth);
-
-        for (int i = 0; i < numbers.size(); i++) {
-            // Форматування виведення чисел з заданою шириною клітинки
-            System.out.printf("| %" + (cellWidth - 2) + "d ", numbers.get(i));
-
-            // Перехід на новий рядок після заповнення рядка або в кінці списку
-            if ((i + 1) % columns == 0 || i == numbers.size() - 1) {
-                System.out.println("|");
-                printHorizontalLine(columns, cellWidth);
-            }
-        }
-    }
-
-    private void printHorizontalLine(int columns, int cellWidth) {
-        for (int i = 0; i < columns; i++) {
-            for (int j = 0; j < cellWidth; j++) {
-                System.out.print("-");
-            }
+        try {
+            new TableRenderer(System.out, columns, cellWidth).render(data);
+        } catch (IOException e) {
+            System.err.println("Помилка виведення таблиці: " + e.getMessage());
         }
-        System.out.println();
     }
 }
 
@@ -73,6 +72,131 @@ class ConsoleResultDisplayFactory extends ResultDisplayFactory {
     }
 }
 
+/**
+ * Рендерер таблиці чисел у вигляді рядків "| число |" з горизонтальними лініями.
+ * Числа форматуються напряму у байтовий буфер, що використовується повторно,
+ * а у вихідний потік записуються великими блоками замість окремого printf для кожної клітинки.
+ */
+class TableRenderer {
+    private static final int BUFFER_SIZE = 1 << 16; // Розмір буфера виведення
+    static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final int columns;
+    private final int cellWidth;
+    private final byte[] separatorLine; // Готова горизонтальна лінія з переведенням рядка
+    private final byte[] buffer;
+    private final byte[] digits = new byte[11]; // Цифри одного числа (з урахуванням знака)
+    private int position;
+
+    /**
+     * Конструктор рендерера
+     * @param out потік для виведення
+     * @param columns кількість стовпців
+     * @param cellWidth ширина клітинки (щонайменше 3 символи)
+     */
+    public TableRenderer(OutputStream out, int columns, int cellWidth) {
+        if (columns < 1 || cellWidth < 3) {
+            throw new IllegalArgumentException("Некоректні параметри таблиці: " + columns + " x " + cellWidth);
+        }
+        this.out = out;
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+        this.separatorLine = new byte[columns * cellWidth + LINE_SEPARATOR.length];
+        Arrays.fill(separatorLine, 0, columns * cellWidth, (byte) '-');
+        System.arraycopy(LINE_SEPARATOR, 0, separatorLine, columns * cellWidth, LINE_SEPARATOR.length);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, separatorLine.length + cellWidth + digits.length + 4)];
+    }
+
+    /**
+     * Виводить таблицю з усіма числами
+     * @param data дані для виведення
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void render(Data data) throws IOException {
+        int size = data.size();
+        appendLine();
+        PrimitiveIterator.OfInt cursor = data.cursor(0, size);
+        for (int i = 0; i < size; i++) {
+            appendCell(cursor.nextInt());
+            // Перехід на новий рядок після заповнення рядка або в кінці списку
+            if ((i + 1) % columns == 0 || i == size - 1) {
+                append((byte) '|');
+                append(LINE_SEPARATOR);
+                appendLine();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Додає клітинку "| число " з вирівнюванням числа по правому краю
+     * @param value число
+     */
+    private void appendCell(int value) throws IOException {
+        int length = formatDigits(value);
+        int padding = cellWidth - 2 - length;
+        ensureCapacity(3 + Math.max(padding, 0) + length);
+        buffer[position++] = '|';
+        buffer[position++] = ' ';
+        for (int i = 0; i < padding; i++) buffer[position++] = ' ';
+        System.arraycopy(digits, digits.length - length, buffer, position, length);
+        position += length;
+        buffer[position++] = ' ';
+    }
+
+    /**
+     * Записує десяткові цифри числа у кінець масиву digits
+     * @param value число
+     * @return кількість записаних символів
+     */
+    private int formatDigits(int value) {
+        int index = digits.length;
+        long v = value; // long, щоб коректно обробити Integer.MIN_VALUE
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        do {
+            digits[--index] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (negative) digits[--index] = '-';
+        return digits.length - index;
+    }
+
+    private void appendLine() throws IOException {
+        ensureCapacity(separatorLine.length);
+        System.arraycopy(separatorLine, 0, buffer, position, separatorLine.length);
+        position += separatorLine.length;
+    }
+
+    private void append(byte b) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    private void append(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) flush();
+    }
+
+    /**
+     * Записує накопичені байти у потік одним викликом
+     * @throws IOException якщо виникає помилка запису
+     */
+    private void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+}
+
 /**
  * Інтерфейс команди
  * Частина шаблону проектування "Команда"
@@ -90,8 +214,11 @@ interface Command {
 class CommandManager {
     private static CommandManager instance;
     private final Stack<Command> commandHistory = new Stack<>();
+    private final CommandMetrics metrics = new CommandMetrics("task5", () -> 0); // Команди виконуються одразу, без черги
 
-    private CommandManager() {}
+    private CommandManager() {
+        metrics.start();
+    }
 
     public static synchronized CommandManager getInstance() {
         if (instance == null) {
@@ -101,7 +228,9 @@ class CommandManager {
     }
 
     public void executeCommand(Command command) {
-        command.execute();
+        String name = CommandMetrics.nameOf(command);
+        metrics.submitted(name);
+        run(name, command::execute);
         commandHistory.push(command);
     }
 
@@ -111,9 +240,297 @@ class CommandManager {
     public void undoLastCommand() {
         if (!commandHistory.isEmpty()) {
             Command lastCommand = commandHistory.pop();
-            lastCommand.undo();
+            String name = CommandMetrics.nameOf(lastCommand) + ".undo";
+            metrics.submitted(name);
+            run(name, lastCommand::undo);
+        }
+    }
+
+    /**
+     * Метрики виконання команд
+     * @return метрики менеджера
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Виконати дію з вимірюванням часу; виняток фіксується і передається далі
+     * @param name назва для метрик
+     * @param action дія команди
+     */
+    private void run(String name, Runnable action) {
+        long started = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            metrics.finished(name, 0, System.nanoTime() - started, false);
+            throw e;
+        }
+        metrics.finished(name, 0, System.nanoTime() - started, true);
+    }
+}
+
+/**
+ * Гістограма тривалостей з логарифмічними кошиками: 8 кошиків на кожен степінь двійки
+ * (похибка до 12.5%). Запис - атомарний інкремент без блокувань і алокацій.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Записати тривалість
+     * @param nanos тривалість у наносекундах
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+        return total;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Верхня межа кошика, що містить заданий перцентиль
+     * @param percent перцентиль (0..100)
+     * @return тривалість у наносекундах; 0, якщо записів немає
+     */
+    public long percentile(double percent) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percent / 100));
+        for (int i = 0; i < snapshot.length; i++) {
+            rank -= snapshot[i];
+            if (rank <= 0) return Math.min(lowerBound(i + 1) - 1, max.get());
+        }
+        return max.get();
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + 2;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 3);
+    }
+}
+
+/**
+ * Метрики менеджера команд для кожного типу команди: лічильники поданих, виконаних і невдалих
+ * команд (LongAdder, без спільної точки конкуренції) та гістограми часу очікування в черзі
+ * і часу виконання. Публікуються як JMX-бін "task5:type=CommandManager"; якщо задано
+ * -DcommandMetrics.dumpSeconds=N, зведення кожні N секунд виводиться у System.err.
+ */
+class CommandMetrics implements CommandMetricsMXBean {
+    private static final String DUMP_PROPERTY = "commandMetrics.dumpSeconds";
+
+    private final ConcurrentHashMap<String, CommandStats> stats = new ConcurrentHashMap<>();
+    private final String domain;
+    private final IntSupplier queueDepth;
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Лічильники та гістограми одного типу команди
+     */
+    static final class CommandStats {
+        final LongAdder submitted = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder runNanos = new LongAdder();
+        final LatencyHistogram wait = new LatencyHistogram();
+        final LatencyHistogram run = new LatencyHistogram();
+    }
+
+    CommandMetrics(String domain, IntSupplier queueDepth) {
+        this.domain = domain;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Реєстрація JMX-біна і запуск періодичного зведення
+     */
+    public void start() {
+        // Запуск платформного MBeanServer займає сотні мілісекунд, тому реєстрація йде у фоновому потоці
+        Thread registration = new Thread(this::register, "command-metrics-jmx");
+        registration.setDaemon(true);
+        registration.start();
+        long seconds = Long.getLong(DUMP_PROPERTY, 0);
+        if (seconds > 0) {
+            dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "command-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.println(getSummary()), seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(domain + ":type=CommandManager");
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Помилка реєстрації JMX-біна метрик: " + e.getMessage());
         }
     }
+
+    /**
+     * Зняття JMX-біна з реєстрації і зупинка зведення
+     */
+    public void stop() {
+        if (dumper != null) dumper.shutdownNow();
+        try {
+            ObjectName name = new ObjectName(domain + ":type=CommandManager");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException e) {
+            System.err.println("Помилка зняття JMX-біна метрик: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Назва типу команди для метрик
+     * @param command команда
+     * @return просте ім'я класу (повне для анонімних класів)
+     */
+    public static String nameOf(Command command) {
+        Class<?> type = command.getClass();
+        return type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
+    }
+
+    public void submitted(String name) {
+        statsFor(name).submitted.increment();
+    }
+
+    /**
+     * Зафіксувати завершення команди
+     * @param name назва типу команди
+     * @param waitNanos час очікування в черзі
+     * @param runNanos час виконання
+     * @param success чи завершилася команда без винятку
+     */
+    public void finished(String name, long waitNanos, long runNanos, boolean success) {
+        CommandStats commandStats = statsFor(name);
+        (success ? commandStats.completed : commandStats.failed).increment();
+        commandStats.runNanos.add(runNanos);
+        commandStats.wait.record(waitNanos);
+        commandStats.run.record(runNanos);
+    }
+
+    private CommandStats statsFor(String name) {
+        CommandStats commandStats = stats.get(name);
+        return commandStats != null ? commandStats : stats.computeIfAbsent(name, key -> new CommandStats());
+    }
+
+    /**
+     * Статистика за назвою типу команди
+     * @return копія, впорядкована за назвою
+     */
+    public Map<String, CommandStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return sum(commandStats -> commandStats.submitted.sum());
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return sum(commandStats -> commandStats.completed.sum());
+    }
+
+    @Override
+    public long getFailedCount() {
+        return sum(commandStats -> commandStats.failed.sum());
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getCompletedByCommand() {
+        return byCommand(commandStats -> commandStats.completed.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailedByCommand() {
+        return byCommand(commandStats -> commandStats.failed.sum());
+    }
+
+    @Override
+    public Map<String, Double> getTotalRunMillisByCommand() {
+        return byCommand(commandStats -> commandStats.runNanos.sum() / 1e6);
+    }
+
+    @Override
+    public Map<String, Double> getP99WaitMillisByCommand() {
+        return byCommand(commandStats -> commandStats.wait.percentile(99) / 1e6);
+    }
+
+    @Override
+    public Map<String, Double> getP99RunMillisByCommand() {
+        return byCommand(commandStats -> commandStats.run.percentile(99) / 1e6);
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder("Команди: подано ").append(getSubmittedCount())
+                .append(", виконано ").append(getCompletedCount())
+                .append(", з помилкою ").append(getFailedCount())
+                .append(", у черзі ").append(getQueueDepth());
+        getStats().forEach((name, commandStats) -> sb.append("\n  ").append(name)
+                .append(": виконано ").append(commandStats.completed.sum())
+                .append(", помилок ").append(commandStats.failed.sum())
+                .append("; очікування p50 ").append(millis(commandStats.wait.percentile(50)))
+                .append(", p99 ").append(millis(commandStats.wait.percentile(99)))
+                .append("; виконання p50 ").append(millis(commandStats.run.percentile(50)))
+                .append(", p99 ").append(millis(commandStats.run.percentile(99)))
+                .append(", макс ").append(millis(commandStats.run.max()))
+                .append(", сумарно ").append(millis(commandStats.runNanos.sum())));
+        return sb.toString();
+    }
+
+    private long sum(ToLongFunction<CommandStats> counter) {
+        long total = 0;
+        for (CommandStats commandStats : stats.values()) total += counter.applyAsLong(commandStats);
+        return total;
+    }
+
+    private <T> Map<String, T> byCommand(Function<CommandStats, T> value) {
+        Map<String, T> result = new TreeMap<>();
+        stats.forEach((name, commandStats) -> result.put(name, value.apply(commandStats)));
+        return result;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f мс", nanos / 1e6);
+    }
 }
 
 /**
@@ -165,16 +582,85 @@ class MacroCommand implements Command {
 
 /**
  * Клас для зберігання та обробки даних
+ * Незмінний знімок: числа копіюються один раз у примітивний масив,
+ * а далі читаються через індекси, курсори та представлення без копіювання
  */
 class Data {
-    private final List<Integer> numbers;
+    private final int[] numbers;
 
+    /**
+     * Конструктор класу Data: числа копіюються один раз у примітивний масив.
+     * @param numbers Список чисел для обробки
+     */
     public Data(List<Integer> numbers) {
-        this.numbers = new ArrayList<>(numbers);
+        this.numbers = numbers.stream().mapToInt(Integer::intValue).toArray();
     }
 
+    /**
+     * Створення знімка з масиву без копіювання.
+     * Масив переходить у власність об'єкта і не повинен змінюватися після виклику.
+     * @param numbers Масив чисел
+     */
+    Data(int[] numbers) {
+        this.numbers = numbers;
+    }
+
+    /**
+     * Отримання списку чисел лише для читання (представлення без копіювання).
+     * @return Незмінний список чисел
+     */
     public List<Integer> getNumbers() {
-        return new ArrayList<>(numbers);
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) { return numbers[index]; }
+            @Override
+            public int size() { return numbers.length; }
+        };
+    }
+
+    /**
+     * Кількість чисел.
+     * @return Розмір набору даних
+     */
+    public int size() {
+        return numbers.length;
+    }
+
+    /**
+     * Число за індексом (без упакування).
+     * @param index Індекс числа
+     * @return Число
+     */
+    public int get(int index) {
+        return numbers[index];
+    }
+
+    /**
+     * Курсор для послідовного читання чисел з діапазону без копіювання.
+     * @param from Початковий індекс (включно)
+     * @param to Кінцевий індекс (не включно)
+     * @return Курсор по числах
+     */
+    public PrimitiveIterator.OfInt cursor(int from, int to) {
+        Objects.checkFromToIndex(from, to, numbers.length);
+        return new PrimitiveIterator.OfInt() {
+            private int position = from;
+            @Override
+            public boolean hasNext() { return position < to; }
+            @Override
+            public int nextInt() {
+                if (position >= to) throw new NoSuchElementException();
+                return numbers[position++];
+            }
+        };
+    }
+
+    /**
+     * Потік чисел без упакування (для обробки, у тому числі паралельної).
+     * @return Потік чисел
+     */
+    public IntStream stream() {
+        return Arrays.stream(numbers);
     }
 
     /**
@@ -182,14 +668,16 @@ class Data {
      * @return сума чисел
      */
     public int getResult() {
-        return numbers.stream().mapToInt(Integer::intValue).sum();
+        int sum = 0;
+        for (int number : numbers) sum += number;
+        return sum;
     }
 
     /**
      * Вивести всі числа у консоль
      */
     public void printTable() {
-        numbers.forEach(num -> System.out.print(num + " "));
+        for (int number : numbers) System.out.print(number + " ");
         System.out.println();
     }
 }
@@ -207,7 +695,16 @@ class Calculator {
      * @param factory фабрика для створення інтерфейсу відображення
      */
     public Calculator(List<Integer> numbers, DisplayFactory factory) {
-        this.data = new Data(numbers);
+        this(new Data(numbers), factory);
+    }
+
+    /**
+     * Конструктор калькулятора з готового знімка даних (без копіювання)
+     * @param data знімок даних
+     * @param factory фабрика для створення інтерфейсу відображення
+     */
+    public Calculator(Data data, DisplayFactory factory) {
+        this.data = data;
         this.display = factory.createDisplay();
     }
 
@@ -256,12 +753,12 @@ class GenerateNumbersCommand implements Command {
 class CalculatorTest {
     /**
      * Тестування відображення таблиці
-     * @param numbers список чисел для тестування
+     * @param data знімок чисел для тестування
      * @return результат тестування (true - успішно, false - помилка)
      */
-    public static boolean testCustomTableDisplay(List<Integer> numbers) {
+    public static boolean testCustomTableDisplay(Data data) {
         try {
-            Calculator calculator = new Calculator(numbers, new ConsoleResultDisplayFactory());
+            Calculator calculator = new Calculator(data, new ConsoleResultDisplayFactory());
             calculator.displayCustomResults(3, 5);
             return true;
         } catch (Exception e) {
@@ -275,10 +772,15 @@ class CalculatorTest {
  * Головний клас програми
  */
 public class Main {
+    // Стан неінтерактивних операцій (run), що зберігається між операціями одного запуску
+    private static final List<Integer> jobNumbers = new ArrayList<>(); // Поточні числа
+    private static Data jobData = new Data(new int[0]); // Знімок jobNumbers, оновлюється після generate і undo
+
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
         Random random = new Random();
         List<Integer> numbers = new ArrayList<>();
+        Data data = new Data(numbers); // Знімок даних, оновлюється лише після команд, що змінюють числа
         boolean running = true;
 
         // Отримання єдиного екземпляра менеджера команд
@@ -300,6 +802,7 @@ public class Main {
                         // Генерація нових чисел
                         GenerateNumbersCommand generateCommand = new GenerateNumbersCommand(numbers);
                         commandManager.executeCommand(generateCommand);
+                        data = new Data(numbers);
                         System.out.println("Згенеровані числа: " + numbers);
                     }
                     case 2 -> {
@@ -315,9 +818,10 @@ public class Main {
                         );
                         MacroCommand macroCommand = new MacroCommand(macroCommands, numbers);
                         commandManager.executeCommand(macroCommand);
+                        data = new Data(numbers);
 
                         // Відображення результатів
-                        Calculator calculator = new Calculator(numbers, new ConsoleResultDisplayFactory());
+                        Calculator calculator = new Calculator(data, new ConsoleResultDisplayFactory());
                         calculator.displayCustomResults(3, 5);
                     }
                     case 3 -> {
@@ -328,12 +832,13 @@ public class Main {
                         }
 
                         // Запуск тестування
-                        boolean testResult = CalculatorTest.testCustomTableDisplay(numbers);
+                        boolean testResult = CalculatorTest.testCustomTableDisplay(data);
                         System.out.println("Тест налаштованої таблиці: " + (testResult ? "ПРОЙДЕНО" : "ПРОВАЛЕНО"));
                     }
                     case 4 -> {
                         // Скасування останньої команди
                         commandManager.undoLastCommand();
+                        data = new Data(numbers);
                         System.out.println("Остання команда скасована.");
                     }
                     case 5 -> running = false; // Вихід з програми
@@ -343,8 +848,34 @@ public class Main {
                 // Обробка некоректного вводу
                 System.out.println("Помилка вводу. Введіть коректне значення.");
                 scanner.nextLine();
+            } catch (IllegalArgumentException e) {
+                // Некоректні параметри таблиці (наприклад, ширина комірки менша за 3)
+                System.out.println("Помилка: " + e.getMessage());
             }
         }
         scanner.close();
     }
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, undo, process, render)
+     * @param options параметри у вигляді ключ=значення
+     */
+    static void run(String operation, Map<String, String> options) {
+        switch (operation) {
+            case "generate" -> {
+                CommandManager.getInstance().executeCommand(new GenerateNumbersCommand(jobNumbers));
+                jobData = new Data(jobNumbers);
+                System.out.println("Згенеровано чисел: " + jobNumbers.size());
+            }
+            case "undo" -> {
+                CommandManager.getInstance().undoLastCommand();
+                jobData = new Data(jobNumbers);
+            }
+            case "process" -> System.out.println("Сума: " + jobData.getResult());
+            case "render" -> new Calculator(jobData, new ConsoleResultDisplayFactory())
+                    .displayCustomResults(intOption(options, "columns", 3), intOption(options, "cellWidth", 5));
+            default -> throw new IllegalArgumentException("Невідома операція: " + operation);
+        }
+    }
 }
\ No newline at end of file
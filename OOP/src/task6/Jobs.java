@@ -0,0 +1,24 @@
+package task6;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Точка входу неінтерактивних операцій завдання 6 для запуску з task1.Main.
+ * Операції та їхній стан належать класу Main.
+ */
+public final class Jobs {
+    private Jobs() {}
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, append, index, query, process, order, cluster, worker, serve,
+     *                  loadtest, render)
+     * @param options параметри у вигляді ключ=значення
+     * @throws IOException якщо не вдалося відкрити порт сервера
+     * @throws InterruptedException якщо очікування перервано
+     */
+    public static void run(String operation, Map<String, String> options) throws IOException, InterruptedException {
+        Main.run(operation, options);
+    }
+}
\ No newline at end of file
@@ -1,8 +1,59 @@
 package task6;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import static task1.JobOptions.intOption;
+import static task1.JobOptions.longOption;
 
 /**
  * Інтерфейс для відображення результатів
@@ -37,34 +88,11 @@ class ConsoleResultDisplay implements ResultDisplay {
     @Override
     public void displayCustomTable(Data data, int columns, int cellWidth) {
         System.out.println("Налаштована таблиця:");
-        List<Integer> numbers = data.getNumbers();
-
-        printHorizontalLine(columns, cellWidth);
-
-        for (int i = 0; i < numbers.size(); i++) {
-            // Форматування даних з вирівнюванням по правому краю в клітинці
-            System.out.printf("| %" + (cellWidth - 2) + "d ", numbers.get(i));
-
-            // Перехід на новий рядок після заповнення рядка або в кінці списку
-            if ((i + 1) % columns == 0 || i == numbers.size() - 1) {
-                System.out.println("|");
-                printHorizontalLine(columns, cellWidth);
-            }
-        }
-    }
-
-    /**
-     * Допоміжний метод для друку горизонтальної лінії таблиці
-     * @param columns кількість стовпців
-     * @param cellWidth ширина клітинки
-     */
-    private void printHorizontalLine(int columns, int cellWidth) {
-        for (int i = 0; i < columns; i++) {
-            for (int j = 0; j < cellWidth; j++) {
-                System.out.print("-");
-            }
+        try {
+            new TableRenderer(System.out, columns, cellWidth).render(data);
+        } catch (IOException e) {
+            System.err.println("Помилка виведення таблиці: " + e.getMessage());
         }
-        System.out.println();
     }
 }
 
@@ -79,6 +107,131 @@ class ConsoleResultDisplayFactory extends ResultDisplayFactory {
     }
 }
 
+/**
+ * Рендерер таблиці чисел у вигляді рядків "| число |" з горизонтальними лініями.
+ * Числа форматуються напряму у байтовий буфер, що використовується повторно,
+ * а у вихідний потік записуються великими блоками замість окремого printf для кожної клітинки.
+ */
+class TableRenderer {
+    private static final int BUFFER_SIZE = 1 << 16; // Розмір буфера виведення
+    static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final int columns;
+    private final int cellWidth;
+    private final byte[] separatorLine; // Готова горизонтальна лінія з переведенням рядка
+    private final byte[] buffer;
+    private final byte[] digits = new byte[11]; // Цифри одного числа (з урахуванням знака)
+    private int position;
+
+    /**
+     * Конструктор рендерера
+     * @param out потік для виведення
+     * @param columns кількість стовпців
+     * @param cellWidth ширина клітинки (щонайменше 3 символи)
+     */
+    public TableRenderer(OutputStream out, int columns, int cellWidth) {
+        if (columns < 1 || cellWidth < 3) {
+            throw new IllegalArgumentException("Некоректні параметри таблиці: " + columns + " x " + cellWidth);
+        }
+        this.out = out;
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+        this.separatorLine = new byte[columns * cellWidth + LINE_SEPARATOR.length];
+        Arrays.fill(separatorLine, 0, columns * cellWidth, (byte) '-');
+        System.arraycopy(LINE_SEPARATOR, 0, separatorLine, columns * cellWidth, LINE_SEPARATOR.length);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, separatorLine.length + cellWidth + digits.length + 4)];
+    }
+
+    /**
+     * Виводить таблицю з усіма числами
+     * @param data дані для виведення
+     * @throws IOException якщо виникає помилка запису
+     */
+    public void render(Data data) throws IOException {
+        int size = data.size();
+        appendLine();
+        PrimitiveIterator.OfInt cursor = data.cursor(0, size);
+        for (int i = 0; i < size; i++) {
+            appendCell(cursor.nextInt());
+            // Перехід на новий рядок після заповнення рядка або в кінці списку
+            if ((i + 1) % columns == 0 || i == size - 1) {
+                append((byte) '|');
+                append(LINE_SEPARATOR);
+                appendLine();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Додає клітинку "| число " з вирівнюванням числа по правому краю
+     * @param value число
+     */
+    private void appendCell(int value) throws IOException {
+        int length = formatDigits(value);
+        int padding = cellWidth - 2 - length;
+        ensureCapacity(3 + Math.max(padding, 0) + length);
+        buffer[position++] = '|';
+        buffer[position++] = ' ';
+        for (int i = 0; i < padding; i++) buffer[position++] = ' ';
+        System.arraycopy(digits, digits.length - length, buffer, position, length);
+        position += length;
+        buffer[position++] = ' ';
+    }
+
+    /**
+     * Записує десяткові цифри числа у кінець масиву digits
+     * @param value число
+     * @return кількість записаних символів
+     */
+    private int formatDigits(int value) {
+        int index = digits.length;
+        long v = value; // long, щоб коректно обробити Integer.MIN_VALUE
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        do {
+            digits[--index] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (negative) digits[--index] = '-';
+        return digits.length - index;
+    }
+
+    private void appendLine() throws IOException {
+        ensureCapacity(separatorLine.length);
+        System.arraycopy(separatorLine, 0, buffer, position, separatorLine.length);
+        position += separatorLine.length;
+    }
+
+    private void append(byte b) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    private void append(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) flush();
+    }
+
+    /**
+     * Записує накопичені байти у потік одним викликом
+     * @throws IOException якщо виникає помилка запису
+     */
+    private void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+}
+
 /**
  * Інтерфейс команди
  * Частина шаблону проектування "Команда"
@@ -94,8 +247,14 @@ interface Command {
  */
 class CommandManager {
     private static CommandManager instance;
-    private final BlockingQueue<Command> commandQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<QueuedCommand> commandQueue = new LinkedBlockingQueue<>();
     private final ExecutorService executor;
+    private final CommandMetrics metrics = new CommandMetrics("task6", this::getQueueDepth);
+
+    /**
+     * Команда разом із моментом постановки в чергу, щоб виміряти час очікування
+     */
+    private record QueuedCommand(Command command, long enqueuedNanos) {}
 
     /**
      * Приватний конструктор для шаблону "Одинак"
@@ -104,14 +263,30 @@ class CommandManager {
     private CommandManager() {
         // Створення пулу потоків з 2 потоками
         executor = Executors.newFixedThreadPool(2);
+        metrics.start();
 
         // Запуск обробника команд у окремому потоці
         executor.submit(() -> {
             while (!Thread.currentThread().isInterrupted()) {
                 try {
                     // Очікування та виконання команд з черги
-                    Command command = commandQueue.take();
-                    command.execute();
+                    QueuedCommand queued = commandQueue.take();
+                    String name = CommandMetrics.nameOf(queued.command());
+                    long started = System.nanoTime();
+                    FlightEvents.dequeued(queued.command(), started - queued.enqueuedNanos());
+                    CommandExecutedEvent event = FlightEvents.beginExecution();
+                    boolean success = false;
+                    try {
+                        queued.command().execute();
+                        metrics.finished(name, started - queued.enqueuedNanos(), System.nanoTime() - started, true);
+                        success = true;
+                    } catch (RuntimeException e) {
+                        // Помилка однієї команди не зупиняє обробку черги
+                        metrics.finished(name, started - queued.enqueuedNanos(), System.nanoTime() - started, false);
+                        System.err.println("Помилка виконання команди " + name + ": " + e.getMessage());
+                    } finally {
+                        FlightEvents.endExecution(event, queued.command(), success);
+                    }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
@@ -121,11 +296,12 @@ class CommandManager {
     }
 
     /**
-     * Отримання єдиного екземпляра менеджера команд (шаблон "Одинак")
+     * Отримання єдиного екземпляра менеджера команд (шаблон "Одинак").
+     * Після shutdown() створюється новий менеджер
      * @return екземпляр CommandManager
      */
     public static synchronized CommandManager getInstance() {
-        if (instance == null) {
+        if (instance == null || instance.executor.isShutdown()) {
             instance = new CommandManager();
         }
         return instance;
@@ -136,12 +312,31 @@ class CommandManager {
      * @param command команда для виконання
      */
     public void executeCommand(Command command) {
+        metrics.submitted(CommandMetrics.nameOf(command));
         try {
-            commandQueue.put(command);
+            commandQueue.put(new QueuedCommand(command, System.nanoTime()));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Переривання при додаванні команди до черги: " + e.getMessage());
+            return;
         }
+        FlightEvents.enqueued(command, commandQueue.size());
+    }
+
+    /**
+     * Кількість команд, що очікують виконання
+     * @return розмір черги
+     */
+    public int getQueueDepth() {
+        return commandQueue.size();
+    }
+
+    /**
+     * Метрики виконання команд
+     * @return метрики менеджера
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -149,6 +344,7 @@ class CommandManager {
      * Викликається при закінченні роботи програми
      */
     public void shutdown() {
+        metrics.stop();
         executor.shutdownNow();
         try {
             // Очікування завершення всіх потоків протягом 5 секунд
@@ -162,177 +358,3007 @@ class CommandManager {
 }
 
 /**
- * Команда для генерації випадкових чисел та їх відображення
- * Реалізує шаблон "Команда"
+ * Гістограма тривалостей з логарифмічними кошиками: 8 кошиків на кожен степінь двійки
+ * (похибка до 12.5%). Запис - атомарний інкремент без блокувань і алокацій.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Записати тривалість
+     * @param nanos тривалість у наносекундах
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+        return total;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Верхня межа кошика, що містить заданий перцентиль
+     * @param percent перцентиль (0..100)
+     * @return тривалість у наносекундах; 0, якщо записів немає
+     */
+    public long percentile(double percent) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percent / 100));
+        for (int i = 0; i < snapshot.length; i++) {
+            rank -= snapshot[i];
+            if (rank <= 0) return Math.min(lowerBound(i + 1) - 1, max.get());
+        }
+        return max.get();
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + 2;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 3);
+    }
+}
+
+/**
+ * Метрики менеджера команд для кожного типу команди: лічильники поданих, виконаних і невдалих
+ * команд (LongAdder, без спільної точки конкуренції) та гістограми часу очікування в черзі
+ * і часу виконання. Публікуються як JMX-бін "task6:type=CommandManager"; якщо задано
+ * -DcommandMetrics.dumpSeconds=N, зведення кожні N секунд виводиться у System.err.
+ */
+class CommandMetrics implements CommandMetricsMXBean {
+    private static final String DUMP_PROPERTY = "commandMetrics.dumpSeconds";
+
+    private final ConcurrentHashMap<String, CommandStats> stats = new ConcurrentHashMap<>();
+    private final String domain;
+    private final IntSupplier queueDepth;
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Лічильники та гістограми одного типу команди
+     */
+    static final class CommandStats {
+        final LongAdder submitted = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder runNanos = new LongAdder();
+        final LatencyHistogram wait = new LatencyHistogram();
+        final LatencyHistogram run = new LatencyHistogram();
+    }
+
+    CommandMetrics(String domain, IntSupplier queueDepth) {
+        this.domain = domain;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Реєстрація JMX-біна і запуск періодичного зведення
+     */
+    public void start() {
+        // Запуск платформного MBeanServer займає сотні мілісекунд, тому реєстрація йде у фоновому потоці
+        Thread registration = new Thread(this::register, "command-metrics-jmx");
+        registration.setDaemon(true);
+        registration.start();
+        long seconds = Long.getLong(DUMP_PROPERTY, 0);
+        if (seconds > 0) {
+            dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "command-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.println(getSummary()), seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(domain + ":type=CommandManager");
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Помилка реєстрації JMX-біна метрик: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Зняття JMX-біна з реєстрації і зупинка зведення
+     */
+    public void stop() {
+        if (dumper != null) dumper.shutdownNow();
+        try {
+            ObjectName name = new ObjectName(domain + ":type=CommandManager");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException e) {
+            System.err.println("Помилка зняття JMX-біна метрик: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Назва типу команди для метрик
+     * @param command команда
+     * @return просте ім'я класу (повне для анонімних класів)
+     */
+    public static String nameOf(Command command) {
+        Class<?> type = command.getClass();
+        return type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
+    }
+
+    public void submitted(String name) {
+        statsFor(name).submitted.increment();
+    }
+
+    /**
+     * Зафіксувати завершення команди
+     * @param name назва типу команди
+     * @param waitNanos час очікування в черзі
+     * @param runNanos час виконання
+     * @param success чи завершилася команда без винятку
+     */
+    public void finished(String name, long waitNanos, long runNanos, boolean success) {
+        CommandStats commandStats = statsFor(name);
+        (success ? commandStats.completed : commandStats.failed).increment();
+        commandStats.runNanos.add(runNanos);
+        commandStats.wait.record(waitNanos);
+        commandStats.run.record(runNanos);
+    }
+
+    private CommandStats statsFor(String name) {
+        CommandStats commandStats = stats.get(name);
+        return commandStats != null ? commandStats : stats.computeIfAbsent(name, key -> new CommandStats());
+    }
+
+    /**
+     * Статистика за назвою типу команди
+     * @return копія, впорядкована за назвою
+     */
+    public Map<String, CommandStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return sum(commandStats -> commandStats.submitted.sum());
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return sum(commandStats -> commandStats.completed.sum());
+    }
+
+    @Override
+    public long getFailedCount() {
+        return sum(commandStats -> commandStats.failed.sum());
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getCompletedByCommand() {
+        return byCommand(commandStats -> commandStats.completed.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailedByCommand() {
+        return byCommand(commandStats -> commandStats.failed.sum());
+    }
+
+    @Override
+    public Map<String, Double> getTotalRunMillisByCommand() {
+        return byCommand(commandStats -> commandStats.runNanos.sum() / 1e6);
+    }
+
+    @Override
+    public Map<String, Double> getP99WaitMillisByCommand() {
+        return byCommand(commandStats -> commandStats.wait.percentile(99) / 1e6);
+    }
+
+    @Override
+    public Map<String, Double> getP99RunMillisByCommand() {
+        return byCommand(commandStats -> commandStats.run.percentile(99) / 1e6);
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder("Команди: подано ").append(getSubmittedCount())
+                .append(", виконано ").append(getCompletedCount())
+                .append(", з помилкою ").append(getFailedCount())
+                .append(", у черзі ").append(getQueueDepth());
+        getStats().forEach((name, commandStats) -> sb.append("\n  ").append(name)
+                .append(": виконано ").append(commandStats.completed.sum())
+                .append(", помилок ").append(commandStats.failed.sum())
+                .append("; очікування p50 ").append(millis(commandStats.wait.percentile(50)))
+                .append(", p99 ").append(millis(commandStats.wait.percentile(99)))
+                .append("; виконання p50 ").append(millis(commandStats.run.percentile(50)))
+                .append(", p99 ").append(millis(commandStats.run.percentile(99)))
+                .append(", макс ").append(millis(commandStats.run.max()))
+                .append(", сумарно ").append(millis(commandStats.runNanos.sum())));
+        return sb.toString();
+    }
+
+    private long sum(ToLongFunction<CommandStats> counter) {
+        long total = 0;
+        for (CommandStats commandStats : stats.values()) total += counter.applyAsLong(commandStats);
+        return total;
+    }
+
+    private <T> Map<String, T> byCommand(Function<CommandStats, T> value) {
+        Map<String, T> result = new TreeMap<>();
+        stats.forEach((name, commandStats) -> result.put(name, value.apply(commandStats)));
+        return result;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f мс", nanos / 1e6);
+    }
+}
+
+/**
+ * Подія JFR: команду додано до черги CommandManager.
+ * Усі події завдання вимкнені за замовчуванням і вмикаються профілем task6.jfc
+ * (-XX:StartFlightRecording:settings=default,settings=src/task6/task6.jfc).
+ * Події записуються лише через FlightEvents.
+ */
+@Name("task6.CommandEnqueued")
+@Label("Команду додано до черги")
+@Category({"Task6", "Команди"})
+@Enabled(false)
+@StackTrace(false)
+class CommandEnqueuedEvent extends Event {
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Глибина черги")
+    int queueDepth;
+}
+
+/**
+ * Подія JFR: потік обробника взяв команду з черги
+ */
+@Name("task6.CommandDequeued")
+@Label("Команду взято з черги")
+@Category({"Task6", "Команди"})
+@Enabled(false)
+@StackTrace(false)
+class CommandDequeuedEvent extends Event {
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Час очікування")
+    @Timespan
+    long waitTime;
+}
+
+/**
+ * Подія JFR: виконання команди, тривалість дорівнює часу execute()
+ */
+@Name("task6.CommandExecuted")
+@Label("Виконання команди")
+@Category({"Task6", "Команди"})
+@Enabled(false)
+@StackTrace(false)
+class CommandExecutedEvent extends Event {
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Успішно")
+    boolean success;
+}
+
+/**
+ * Подія JFR: одна фаза роботи команди (генерація, обробка, статистика, відображення)
+ * з розміром набору даних
+ */
+@Name("task6.Phase")
+@Label("Фаза обробки")
+@Category({"Task6", "Фази"})
+@Enabled(false)
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Фаза")
+    String phase;
+
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Розмір набору даних")
+    long datasetSize;
+}
+
+/**
+ * Точка запису подій JFR для черги команд і фаз обробки.
+ * Класи подій не використовуються, доки JFR не ініціалізовано (запис, запущений прапорцем
+ * -XX:StartFlightRecording або jcmd JFR.start): перше звернення до класу події реєструє його
+ * і завантажує підсистему JFR, що коштує сотні мілісекунд. Без запису виклики зводяться
+ * до читання одного прапорця, а фази повертають null.
+ */
+final class FlightEvents {
+    static final String GENERATE = "generate";
+    static final String PROCESS = "process";
+    static final String STATISTICS = "statistics";
+    static final String RENDER = "render";
+
+    private FlightEvents() {}
+
+    /**
+     * Команду додано до черги
+     * @param command команда
+     * @param queueDepth глибина черги після додавання
+     */
+    static void enqueued(Command command, int queueDepth) {
+        if (!FlightRecorder.isInitialized()) return;
+        CommandEnqueuedEvent event = new CommandEnqueuedEvent();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass();
+            event.queueDepth = queueDepth;
+            event.commit();
+        }
+    }
+
+    /**
+     * Команду взято з черги
+     * @param command команда
+     * @param waitNanos час очікування в черзі
+     */
+    static void dequeued(Command command, long waitNanos) {
+        if (!FlightRecorder.isInitialized()) return;
+        CommandDequeuedEvent event = new CommandDequeuedEvent();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass();
+            event.waitTime = waitNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Почати вимірювання виконання команди
+     * @return подія або null, якщо JFR не ініціалізовано
+     */
+    static CommandExecutedEvent beginExecution() {
+        if (!FlightRecorder.isInitialized()) return null;
+        CommandExecutedEvent event = new CommandExecutedEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершити вимірювання виконання команди
+     * @param event подія з beginExecution() або null
+     * @param command виконана команда
+     * @param success чи завершилася команда без винятку
+     */
+    static void endExecution(CommandExecutedEvent event, Command command, boolean success) {
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass();
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * Почати фазу; поля заповнюються лише тоді, коли подію ввімкнено
+     * @param phase назва фази
+     * @param commandType клас команди, що виконує фазу
+     * @param datasetSize кількість чисел
+     * @return подія або null, якщо JFR не ініціалізовано
+     */
+    static PhaseEvent beginPhase(String phase, Class<?> commandType, long datasetSize) {
+        if (!FlightRecorder.isInitialized()) return null;
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.commandType = commandType;
+            event.datasetSize = datasetSize;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Завершити фазу
+     * @param event подія з beginPhase() або null
+     */
+    static void endPhase(PhaseEvent event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+}
+
+/**
+ * Команда для генерації випадкових чисел та їх відображення
+ * Реалізує шаблон "Команда"
+ */
+class GenerateAndDisplayCommand implements Command {
+    private final List<Integer> numbers;
+    private final int count;
+    private final int bound;
+    private final DisplayFactory displayFactory;
+    private final int columns;
+    private final int cellWidth;
+    private Data data; // Знімок згенерованих чисел для відображення і подальшої обробки
+
+    /**
+     * Конструктор команди генерації та відображення
+     * @param numbers список для зберігання згенерованих чисел
+     * @param count кількість чисел для генерації
+     * @param bound верхня межа для генерації випадкових чисел
+     * @param displayFactory фабрика для створення відображення
+     * @param columns кількість стовпців для відображення
+     * @param cellWidth ширина клітинки для відображення
+     */
+    public GenerateAndDisplayCommand(List<Integer> numbers, int count, int bound,
+                                     DisplayFactory displayFactory, int columns, int cellWidth) {
+        this.numbers = numbers;
+        this.count = count;
+        this.bound = bound;
+        this.displayFactory = displayFactory;
+        this.columns = columns;
+        this.cellWidth = cellWidth;
+    }
+
+    @Override
+    public void execute() {
+        // Очищення попередніх даних
+        numbers.clear();
+        Random random = new Random();
+
+        // Генерація нових випадкових чисел
+        PhaseEvent generatePhase = FlightEvents.beginPhase(FlightEvents.GENERATE, getClass(), count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(random.nextInt(bound));
+        }
+        FlightEvents.endPhase(generatePhase);
+        System.out.println("Згенеровані числа: " + numbers);
+
+        // Відображення згенерованих чисел у вигляді таблиці
+        PhaseEvent renderPhase = FlightEvents.beginPhase(FlightEvents.RENDER, getClass(), count);
+        data = new Data(numbers);
+        Calculator calculator = new Calculator(data, displayFactory);
+        calculator.displayCustomResults(columns, cellWidth);
+        FlightEvents.endPhase(renderPhase);
+    }
+
+    /**
+     * Знімок чисел, згенерованих останнім виконанням
+     * @return знімок даних або null, якщо команда ще не виконувалась
+     */
+    public Data getData() {
+        return data;
+    }
+}
+
+/**
+ * Фільтр чисел: діапазон, остача від ділення, рівність та їх комбінації AND/OR/NOT.
+ * Обчислюється блоками по 64 числа: кожен лист будує 64-бітну маску без умовних переходів,
+ * а вузли комбінують маски побітовими операціями, тому дерево будь-якої глибини
+ * не додає викликів на кожне число.
+ * Текстовий вигляд: {@code mod(2, 0) and not range(0, 50) or eq(7)}; пріоритет
+ * not > and > or, дужки групують.
+ */
+abstract class Filter {
+    /**
+     * Результат перевірки фільтра на відрізку значень: жодне, усі або частина чисел
+     */
+    enum Cover { NONE, ALL, MIXED }
+
+    /**
+     * Маска блоку: біт i встановлено, якщо block[i] проходить фільтр; біти від length - нулі
+     * @param block числа блоку
+     * @param length кількість чисел у блоці (1..64)
+     * @return маска блоку
+     */
+    abstract long mask(int[] block, int length);
+
+    /**
+     * Перевірка без читання чисел: які з можливих значень відрізка [from, to] проходять фільтр.
+     * Використовується індексом: біни з NONE і ALL не потребують перевірки окремих чисел.
+     * @param from нижня межа (включно)
+     * @param to верхня межа (включно)
+     * @return NONE, ALL або MIXED
+     */
+    abstract Cover classify(int from, int to);
+
+    /**
+     * Числа з діапазону [from, to] включно
+     * @param from нижня межа
+     * @param to верхня межа
+     * @return фільтр
+     */
+    static Filter range(int from, int to) {
+        long span = (long) to - from;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                long mask = 0;
+                for (int i = 0; i < length; i++) {
+                    long offset = (long) block[i] - from;
+                    mask |= (((offset | (span - offset)) >>> 63) ^ 1) << i;
+                }
+                return mask;
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                if (high < from || low > to) return Cover.NONE;
+                return low >= from && high <= to ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "range(" + from + ", " + to + ")";
+            }
+        };
+    }
+
+    /**
+     * Числа з заданою остачею від ділення (остача завжди невід'ємна, як у Math.floorMod)
+     * @param divisor дільник (більше 0)
+     * @param remainder остача
+     * @return фільтр
+     */
+    static Filter modulo(int divisor, int remainder) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Дільник має бути додатним: " + divisor);
+        }
+        boolean powerOfTwo = Integer.bitCount(divisor) == 1;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                long mask = 0;
+                for (int i = 0; i < length; i++) {
+                    int rest = powerOfTwo ? block[i] & (divisor - 1) : Math.floorMod(block[i], divisor);
+                    mask |= ((((rest ^ remainder) & 0xFFFFFFFFL) - 1) >>> 63) << i;
+                }
+                return mask;
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                if (remainder < 0 || remainder >= divisor) return Cover.NONE;
+                if (divisor == 1) return Cover.ALL;
+                long length = (long) high - low + 1;
+                if (length >= divisor) return Cover.MIXED;
+                // Остачі відрізка йдуть поспіль від остачі low, тому досить відстані до remainder
+                long distance = Math.floorMod(remainder - Math.floorMod(low, divisor), divisor);
+                if (distance >= length) return Cover.NONE;
+                return length == 1 ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "mod(" + divisor + ", " + remainder + ")";
+            }
+        };
+    }
+
+    /**
+     * Числа, рівні value
+     * @param value число
+     * @return фільтр
+     */
+    static Filter equalTo(int value) {
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                long mask = 0;
+                for (int i = 0; i < length; i++) {
+                    mask |= ((((block[i] ^ value) & 0xFFFFFFFFL) - 1) >>> 63) << i;
+                }
+                return mask;
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                if (value < low || value > high) return Cover.NONE;
+                return low == high ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "eq(" + value + ")";
+            }
+        };
+    }
+
+    /**
+     * Обидва фільтри
+     * @param other інший фільтр
+     * @return фільтр
+     */
+    Filter and(Filter other) {
+        Filter self = this;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                return self.mask(block, length) & other.mask(block, length);
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                Cover left = self.classify(low, high);
+                if (left == Cover.NONE) return Cover.NONE;
+                Cover right = other.classify(low, high);
+                if (right == Cover.NONE) return Cover.NONE;
+                return left == Cover.ALL && right == Cover.ALL ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "(" + self + " and " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * Хоча б один з фільтрів
+     * @param other інший фільтр
+     * @return фільтр
+     */
+    Filter or(Filter other) {
+        Filter self = this;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                return self.mask(block, length) | other.mask(block, length);
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                Cover left = self.classify(low, high);
+                if (left == Cover.ALL) return Cover.ALL;
+                Cover right = other.classify(low, high);
+                if (right == Cover.ALL) return Cover.ALL;
+                return left == Cover.NONE && right == Cover.NONE ? Cover.NONE : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "(" + self + " or " + other + ")";
+            }
+        };
+    }
+
+    /**
+     * Заперечення фільтра
+     * @return фільтр
+     */
+    Filter not() {
+        Filter self = this;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                return ~self.mask(block, length) & (-1L >>> (64 - length));
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                return switch (self.classify(low, high)) {
+                    case NONE -> Cover.ALL;
+                    case ALL -> Cover.NONE;
+                    case MIXED -> Cover.MIXED;
+                };
+            }
+
+            @Override
+            public String toString() {
+                return "not " + self;
+            }
+        };
+    }
+
+    /**
+     * Розібрати текстовий вираз фільтра
+     * @param expression вираз, наприклад {@code mod(2, 0) and not range(0, 50)}
+     * @return фільтр
+     * @throws IllegalArgumentException якщо вираз некоректний
+     */
+    static Filter parse(String expression) {
+        Parser parser = new Parser(expression);
+        Filter filter = parser.or();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Зайвий текст у фільтрі: " + parser.tokens.get(parser.position));
+        }
+        return filter;
+    }
+
+    /**
+     * Розбір рекурсивним спуском: or := and ("or" and)*, and := unary ("and" unary)*,
+     * unary := "not" unary | "(" or ")" | назва "(" числа ")"
+     */
+    private static final class Parser {
+        private static final Pattern TOKEN = Pattern.compile("\\s*(-?\\d+|[A-Za-z]+|[(),])");
+
+        private final List<String> tokens = new ArrayList<>();
+        private int position;
+
+        Parser(String expression) {
+            Matcher matcher = TOKEN.matcher(expression);
+            int end = 0;
+            while (matcher.lookingAt()) {
+                tokens.add(matcher.group(1).toLowerCase());
+                end = matcher.end();
+                matcher.region(end, expression.length());
+            }
+            if (!expression.substring(end).isBlank()) {
+                throw new IllegalArgumentException("Некоректний фільтр: " + expression.substring(end).trim());
+            }
+        }
+
+        Filter or() {
+            Filter filter = and();
+            while (accept("or")) {
+                filter = filter.or(and());
+            }
+            return filter;
+        }
+
+        Filter and() {
+            Filter filter = unary();
+            while (accept("and")) {
+                filter = filter.and(unary());
+            }
+            return filter;
+        }
+
+        Filter unary() {
+            if (accept("not")) {
+                return unary().not();
+            }
+            if (accept("(")) {
+                Filter filter = or();
+                expect(")");
+                return filter;
+            }
+            String name = next();
+            expect("(");
+            List<Integer> arguments = new ArrayList<>();
+            do {
+                String token = next();
+                try {
+                    arguments.add(Integer.parseInt(token));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Очікувалося число у фільтрі: " + token);
+                }
+            } while (accept(","));
+            expect(")");
+            return switch (name + "/" + arguments.size()) {
+                case "range/2" -> range(arguments.get(0), arguments.get(1));
+                case "mod/2" -> modulo(arguments.get(0), arguments.get(1));
+                case "eq/1" -> equalTo(arguments.get(0));
+                default -> throw new IllegalArgumentException("Невідомий фільтр: " + name + " з "
+                        + arguments.size() + " аргументами");
+            };
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw new IllegalArgumentException("Очікувалося \"" + token + "\" у фільтрі");
+            }
+        }
+
+        private String next() {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Неочікуваний кінець фільтра");
+            }
+            return tokens.get(position++);
+        }
+    }
+}
+
+/**
+ * Стиснений бітовий вектор вибірки (за зразком Roaring): індекси поділено на контейнери
+ * по 65536. Порожній контейнер не зберігається, повний - спільний об'єкт, розріджений
+ * (до 4096 індексів) - відсортований масив char, решта - 1024 слова long.
+ * Кількість і агрегати обчислюються по вектору без створення списку чисел.
+ */
+class SelectionBitmap {
+    static final int CONTAINER_SIZE = 1 << 16;
+    static final int CONTAINER_WORDS = CONTAINER_SIZE / 64;
+    static final int ARRAY_LIMIT = 4096;
+    private static final Object FULL = new Object();
+
+    private final Object[] containers; // null, FULL, char[] або long[]
+    private final long cardinality;
+
+    /**
+     * Конструктор з готових контейнерів (див. compress)
+     * @param containers контейнери за порядком
+     */
+    SelectionBitmap(Object[] containers) {
+        this.containers = containers;
+        long total = 0;
+        for (Object container : containers) {
+            total += cardinality(container);
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * Стиснути слова одного контейнера в найкомпактніший вигляд
+     * @param words 1024 слова бітів (масив може стати частиною контейнера)
+     * @return контейнер
+     */
+    static Object compress(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count == 0) return null;
+        if (count == CONTAINER_SIZE) return FULL;
+        if (count > ARRAY_LIMIT) return words;
+        char[] positions = new char[count];
+        int next = 0;
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                positions[next++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Кількість вибраних індексів
+     * @return кількість
+     */
+    public long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Обсяг пам'яті контейнерів
+     * @return приблизна кількість байтів
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Object container : containers) {
+            bytes += sizeInBytes(container);
+        }
+        return bytes;
+    }
+
+    /**
+     * Обсяг пам'яті одного контейнера
+     * @param container контейнер (див. compress)
+     * @return приблизна кількість байтів
+     */
+    static long sizeInBytes(Object container) {
+        if (container instanceof char[] positions) return 2L * positions.length;
+        if (container instanceof long[] words) return 8L * words.length;
+        return 0;
+    }
+
+    /**
+     * Обійти вибрані індекси у порядку зростання
+     * @param action дія для кожного індексу
+     */
+    public void forEach(IntConsumer action) {
+        for (int c = 0; c < containers.length; c++) {
+            forEach(c, action);
+        }
+    }
+
+    /**
+     * Статистика вибраних чисел, обчислена паралельно по контейнерах
+     * @param data знімок даних, до якого належить вибірка
+     * @return статистика
+     */
+    public PartialAggregate aggregate(Data data) {
+        return aggregate(data, true);
+    }
+
+    /**
+     * Статистика вибраних чисел
+     * @param data знімок даних, до якого належить вибірка
+     * @param parallel обробляти контейнери паралельно
+     * @return статистика
+     */
+    public PartialAggregate aggregate(Data data, boolean parallel) {
+        IntStream range = IntStream.range(0, containers.length);
+        return (parallel ? range.parallel() : range).mapToObj(c -> {
+            long[] state = {0, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 0, 0}; // count, min, max, sum, evens, above
+            forEach(c, index -> {
+                int value = data.get(index);
+                state[0]++;
+                state[1] = Math.min(state[1], value);
+                state[2] = Math.max(state[2], value);
+                state[3] += value;
+                state[4] += (value & 1) ^ 1;
+                state[5] += (50L - value) >>> 63;
+            });
+            return new PartialAggregate(state[0], (int) state[1], (int) state[2], state[3], state[4], state[5]);
+        }).reduce(PartialAggregate.EMPTY, PartialAggregate::combine);
+    }
+
+    /**
+     * Вибрані числа у вигляді, як у List.toString()
+     * @param data знімок даних, до якого належить вибірка
+     * @return рядок виду [a, b, c]
+     */
+    public String formatValues(Data data) {
+        StringBuilder sb = new StringBuilder("[");
+        forEach(index -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(data.get(index));
+        });
+        return sb.append(']').toString();
+    }
+
+    private void forEach(int c, IntConsumer action) {
+        forEach(containers[c], c * CONTAINER_SIZE, action);
+    }
+
+    /**
+     * Обійти індекси одного контейнера у порядку зростання
+     * @param container контейнер (див. compress)
+     * @param base індекс першого числа контейнера
+     * @param action дія для кожного індексу
+     */
+    static void forEach(Object container, int base, IntConsumer action) {
+        if (container == FULL) {
+            for (int i = 0; i < CONTAINER_SIZE; i++) action.accept(base + i);
+        } else if (container instanceof char[] positions) {
+            for (char position : positions) action.accept(base + position);
+        } else if (container instanceof long[] words) {
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    action.accept(base + w * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
+
+    /**
+     * Кількість індексів одного контейнера
+     * @param container контейнер (див. compress)
+     * @return кількість
+     */
+    static long cardinality(Object container) {
+        if (container == FULL) return CONTAINER_SIZE;
+        if (container instanceof char[] positions) return positions.length;
+        if (container instanceof long[] words) {
+            long count = 0;
+            for (long word : words) count += Long.bitCount(word);
+            return count;
+        }
+        return 0;
+    }
+}
+
+/**
+ * Набір іменованих фільтрів, що обчислюються разом за один паралельний прохід:
+ * кожен контейнер з 65536 чисел читається блоками по 64, і маски всіх фільтрів
+ * будуються з того самого блоку, поки він у кеші процесора
+ */
+class FilterPipeline {
+    private final List<String> names = new ArrayList<>();
+    private final List<Filter> filters = new ArrayList<>();
+
+    /**
+     * Додати фільтр
+     * @param name назва вибірки
+     * @param filter фільтр
+     * @return цей самий конвеєр
+     */
+    public FilterPipeline add(String name, Filter filter) {
+        names.add(name);
+        filters.add(filter);
+        return this;
+    }
+
+    /**
+     * Обчислити всі фільтри паралельно по контейнерах
+     * @param data знімок даних
+     * @return вибірки за назвами, у порядку додавання
+     */
+    public Map<String, SelectionBitmap> evaluate(Data data) {
+        return evaluate(data, true);
+    }
+
+    /**
+     * Обчислити всі фільтри
+     * @param data знімок даних
+     * @param parallel обробляти контейнери паралельно
+     * @return вибірки за назвами, у порядку додавання
+     */
+    public Map<String, SelectionBitmap> evaluate(Data data, boolean parallel) {
+        int size = data.size();
+        int containerCount = (int) (((long) size + SelectionBitmap.CONTAINER_SIZE - 1) / SelectionBitmap.CONTAINER_SIZE);
+        Filter[] stages = filters.toArray(new Filter[0]);
+        Object[][] containers = new Object[stages.length][containerCount];
+        IntStream range = IntStream.range(0, containerCount);
+        (parallel ? range.parallel() : range).forEach(c -> {
+            int[] block = new int[64];
+            long[][] words = new long[stages.length][SelectionBitmap.CONTAINER_WORDS];
+            int from = c * SelectionBitmap.CONTAINER_SIZE;
+            int to = (int) Math.min(size, (long) from + SelectionBitmap.CONTAINER_SIZE);
+            for (int base = from, w = 0; base < to; base += 64, w++) {
+                int length = Math.min(64, to - base);
+                for (int i = 0; i < length; i++) {
+                    block[i] = data.get(base + i);
+                }
+                for (int f = 0; f < stages.length; f++) {
+                    words[f][w] = stages[f].mask(block, length);
+                }
+            }
+            for (int f = 0; f < stages.length; f++) {
+                containers[f][c] = SelectionBitmap.compress(words[f]);
+            }
+        });
+        Map<String, SelectionBitmap> selections = new LinkedHashMap<>();
+        for (int f = 0; f < stages.length; f++) {
+            selections.put(names.get(f), new SelectionBitmap(containers[f]));
+        }
+        return selections;
+    }
+}
+
+/**
+ * Бітові індекси значень набору даних для повторюваних запитів кількості.
+ * Діапазон значень [мінімум, максимум] першого знімка ділиться на не більше MAX_BINS бінів
+ * однакової ширини (степінь двійки); числа поза ним потрапляють у два окремі біни.
+ * Кожен бін - стиснений бітовий вектор позицій у контейнерах SelectionBitmap із
+ * заздалегідь порахованою кількістю. Запит класифікує бін фільтром (Filter.classify):
+ * біни, що цілком проходять або не проходять фільтр, дають кількість без читання чисел,
+ * і лише змішані біни перевіряються по своїх позиціях (або повним проходом, якщо вони
+ * містять більшість чисел, як для остачі при широкому діапазоні). Для вузького діапазону
+ * (до MAX_BINS значень, бін - одне значення) будь-який запит - це сума кількостей бінів.
+ * Дописування до знімка перебудовує лише останній неповний і нові контейнери.
+ * Оновлення й запити мають виконуватися з одного потоку.
+ */
+class BitmapIndex {
+    static final int MAX_BINS = 256;
+
+    private final int lower; // Нижня межа першого біна
+    private final int shift; // Ширина біна - 1 << shift значень
+    private final int bins; // Кількість звичайних бінів; далі біни чисел нижче і вище діапазону
+    private final Object[][] containers; // [бін][контейнер], формат SelectionBitmap
+    private final long[] cardinality; // Кількість чисел у кожному біні
+    private Data data = new Data(new int[0]); // Проіндексований знімок
+
+    private BitmapIndex(int lower, int upper) {
+        long domain = (long) upper - lower + 1;
+        int shift = 0;
+        while (((domain - 1) >> shift) + 1 > MAX_BINS) {
+            shift++;
+        }
+        this.lower = lower;
+        this.shift = shift;
+        this.bins = (int) (((domain - 1) >> shift) + 1);
+        this.containers = new Object[bins + 2][0];
+        this.cardinality = new long[bins + 2];
+    }
+
+    /**
+     * Побудувати індекс знімка паралельно по контейнерах
+     * @param data знімок даних
+     * @return індекс
+     */
+    static BitmapIndex build(Data data) {
+        IntSummaryStatistics range = data.stream().parallel().summaryStatistics();
+        BitmapIndex index = data.size() == 0 ? new BitmapIndex(0, 0) : new BitmapIndex(range.getMin(), range.getMax());
+        index.append(data);
+        return index;
+    }
+
+    /**
+     * Оновити індекс після дописування: новий знімок має продовжувати проіндексований
+     * @param data новий знімок даних
+     * @throws IllegalArgumentException якщо знімок коротший за проіндексований
+     */
+    public void append(Data data) {
+        int indexed = this.data.size();
+        if (data.size() < indexed) {
+            throw new IllegalArgumentException("Знімок коротший за проіндексований: " + data.size() + " < " + indexed);
+        }
+        int first = indexed / SelectionBitmap.CONTAINER_SIZE; // Останній неповний контейнер будується заново
+        int count = (int) (((long) data.size() + SelectionBitmap.CONTAINER_SIZE - 1) / SelectionBitmap.CONTAINER_SIZE);
+        for (int b = 0; b < containers.length; b++) {
+            for (int c = first; c < containers[b].length; c++) {
+                cardinality[b] -= SelectionBitmap.cardinality(containers[b][c]);
+            }
+            containers[b] = Arrays.copyOf(containers[b], count);
+        }
+        IntStream.range(first, count).parallel().forEach(c -> buildContainer(data, c));
+        for (int b = 0; b < containers.length; b++) {
+            for (int c = first; c < count; c++) {
+                cardinality[b] += SelectionBitmap.cardinality(containers[b][c]);
+            }
+        }
+        this.data = data;
+    }
+
+    /**
+     * Кількість проіндексованих чисел, що проходять фільтр
+     * @param filter фільтр
+     * @return кількість
+     */
+    public long count(Filter filter) {
+        long total = 0;
+        long mixedCount = 0;
+        int[] mixed = new int[containers.length];
+        int mixedBins = 0;
+        for (int b = 0; b < containers.length; b++) {
+            if (cardinality[b] == 0) continue;
+            switch (filter.classify(binLow(b), binHigh(b))) {
+                case ALL -> total += cardinality[b];
+                case MIXED -> {
+                    mixed[mixedBins++] = b;
+                    mixedCount += cardinality[b];
+                }
+                case NONE -> { }
+            }
+        }
+        if (mixedBins == 0) return total;
+        // Якщо перевіряти треба більшу частину чисел, послідовне читання знімка дешевше за вибірку позицій
+        if (mixedCount > data.size() / 4) return scan(filter);
+        return total + verify(Arrays.copyOf(mixed, mixedBins), filter);
+    }
+
+    /**
+     * Кількість чисел з діапазону [from, to] включно
+     * @param from нижня межа
+     * @param to верхня межа
+     * @return кількість
+     */
+    public long countRange(int from, int to) {
+        return count(Filter.range(from, to));
+    }
+
+    /**
+     * Кількість проіндексованих чисел
+     * @return розмір знімка
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Обсяг пам'яті бітових векторів
+     * @return приблизна кількість байтів
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Object[] bin : containers) {
+            for (Object container : bin) {
+                bytes += SelectionBitmap.sizeInBytes(container);
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return bins + " бінів по " + (1L << shift) + " значень від " + lower;
+    }
+
+    // Два проходи по контейнеру: підрахунок чисел у бінах, потім позиції - одразу у відсортовані масиви
+    private void buildContainer(Data data, int c) {
+        int from = c * SelectionBitmap.CONTAINER_SIZE;
+        int to = (int) Math.min(data.size(), (long) from + SelectionBitmap.CONTAINER_SIZE);
+        int[] counts = new int[containers.length];
+        for (int i = from; i < to; i++) {
+            counts[bin(data.get(i))]++;
+        }
+        char[][] positions = new char[containers.length][];
+        long[][] words = new long[containers.length][];
+        for (int b = 0; b < containers.length; b++) {
+            if (counts[b] > SelectionBitmap.ARRAY_LIMIT) words[b] = new long[SelectionBitmap.CONTAINER_WORDS];
+            else if (counts[b] > 0) positions[b] = new char[counts[b]];
+            counts[b] = 0;
+        }
+        for (int i = from; i < to; i++) {
+            int b = bin(data.get(i));
+            int offset = i - from;
+            if (words[b] != null) words[b][offset >>> 6] |= 1L << offset;
+            else positions[b][counts[b]++] = (char) offset;
+        }
+        for (int b = 0; b < containers.length; b++) {
+            containers[b][c] = words[b] != null ? SelectionBitmap.compress(words[b]) : positions[b];
+        }
+    }
+
+    private int bin(int value) {
+        long offset = ((long) value - lower) >> shift;
+        if (offset < 0) return bins;
+        return offset >= bins ? bins + 1 : (int) offset;
+    }
+
+    private int binLow(int b) {
+        if (b == bins) return Integer.MIN_VALUE;
+        if (b == bins + 1) return (int) Math.min(Integer.MAX_VALUE, lower + ((long) bins << shift));
+        return (int) (lower + ((long) b << shift));
+    }
+
+    private int binHigh(int b) {
+        if (b == bins) return (int) Math.max(Integer.MIN_VALUE, lower - 1L);
+        if (b == bins + 1) return Integer.MAX_VALUE;
+        return (int) Math.min(Integer.MAX_VALUE, lower + ((long) (b + 1) << shift) - 1);
+    }
+
+    // Перевірка чисел змішаних бінів паралельно по контейнерах: позиції збираються блоками по 64 для Filter.mask
+    private long verify(int[] mixed, Filter filter) {
+        Data data = this.data;
+        return IntStream.range(0, containers[0].length).parallel().mapToLong(c -> {
+            int[] block = new int[64];
+            int[] length = {0};
+            long[] matched = {0};
+            for (int b : mixed) {
+                SelectionBitmap.forEach(containers[b][c], c * SelectionBitmap.CONTAINER_SIZE, index -> {
+                    block[length[0]++] = data.get(index);
+                    if (length[0] == 64) {
+                        matched[0] += Long.bitCount(filter.mask(block, 64));
+                        length[0] = 0;
+                    }
+                });
+            }
+            return length[0] == 0 ? matched[0] : matched[0] + Long.bitCount(filter.mask(block, length[0]));
+        }).sum();
+    }
+
+    // Повний прохід по знімку блоками по 64 числа
+    private long scan(Filter filter) {
+        Data data = this.data;
+        int size = data.size();
+        return IntStream.range(0, containers[0].length).parallel().mapToLong(c -> {
+            int[] block = new int[64];
+            long matched = 0;
+            int from = c * SelectionBitmap.CONTAINER_SIZE;
+            int to = (int) Math.min(size, (long) from + SelectionBitmap.CONTAINER_SIZE);
+            for (int base = from; base < to; base += 64) {
+                int length = Math.min(64, to - base);
+                for (int i = 0; i < length; i++) {
+                    block[i] = data.get(base + i);
+                }
+                matched += Long.bitCount(filter.mask(block, length));
+            }
+            return matched;
+        }).sum();
+    }
+}
+
+/**
+ * Команда запитів кількості до бітового індексу: парні числа, числа більше 50 і,
+ * за наявності, фільтр користувача. Для кожного запиту виводиться час відповіді.
+ */
+class IndexQueryCommand implements Command {
+    private final BitmapIndex index;
+    private final Filter customFilter; // Фільтр користувача або null
+
+    /**
+     * Конструктор команди
+     * @param index індекс набору даних
+     * @param customFilter додатковий фільтр або null
+     */
+    public IndexQueryCommand(BitmapIndex index, Filter customFilter) {
+        this.index = index;
+        this.customFilter = customFilter;
+    }
+
+    @Override
+    public void execute() {
+        System.out.println("Індекс: " + index.size() + " чисел, " + index + ", "
+                + index.sizeInBytes() / 1024 + " КБ");
+        query("Парні числа", Filter.modulo(2, 0));
+        query("Числа більше 50", Filter.range(51, Integer.MAX_VALUE));
+        if (customFilter != null) {
+            query("Фільтр " + customFilter, customFilter);
+        }
+    }
+
+    private void query(String label, Filter filter) {
+        long start = System.nanoTime();
+        long count = index.count(filter);
+        long micros = (System.nanoTime() - start) / 1000;
+        System.out.println(label + ": " + count + " шт (" + micros + " мкс)");
+    }
+}
+
+/**
+ * Планувальник виконання команд обробки: за розміром даних і виміряними під час роботи
+ * витратами обирає послідовне виконання в потоці команди, по одному завданню на етап
+ * або розбиття кожного етапу між потоками. Завдання виконуються у власному ForkJoinPool
+ * (розмір - властивість executionPlanner.parallelism, за замовчуванням кількість процесорів),
+ * який створюється лише тоді, коли паралельне виконання вперше стає вигідним.
+ * Оцінки уточнюються після кожного виконання: вартість числа на етап - за послідовними
+ * запусками, накладні витрати завдання - за паралельними.
+ */
+final class ExecutionPlanner {
+    private static final String PARALLELISM_PROPERTY = "executionPlanner.parallelism";
+    private static final double WEIGHT = 0.25; // Вага нового виміру в ковзному середньому
+    private static final long MIN_MEASURED_WORK = 1 << 14; // Менші запуски вимірюють лише сталі витрати
+
+    /**
+     * Спосіб виконання етапів
+     */
+    enum Mode { SEQUENTIAL, SINGLE_TASK, SPLIT_PARALLEL }
+
+    private static final class Holder {
+        static final ExecutionPlanner SHARED = new ExecutionPlanner(
+                Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    private final int parallelism;
+    private volatile ForkJoinPool pool;
+    private volatile double nanosPerElement = 1.0; // Вартість одного числа на одному етапі
+    private volatile double taskNanos = 50_000; // Накладні витрати запуску й очікування завдання
+
+    /**
+     * Конструктор планувальника
+     * @param parallelism кількість потоків пулу (1 - завжди послідовно)
+     */
+    ExecutionPlanner(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Спільний планувальник команд обробки
+     * @return планувальник
+     */
+    static ExecutionPlanner shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Обрати спосіб виконання
+     * @param size кількість чисел
+     * @param stages кількість незалежних етапів, кожен з яких читає всі числа
+     * @return план виконання; після завершення роботи викликається finish()
+     */
+    public Plan plan(int size, int stages) {
+        double work = (double) size * stages * nanosPerElement;
+        double sequential = work;
+        double singleTask = taskNanos + singleTaskWork(work, stages);
+        double split = taskNanos * stages + work / parallelism;
+        Mode mode;
+        if (parallelism == 1 || (sequential <= singleTask && sequential <= split)) {
+            mode = Mode.SEQUENTIAL;
+        } else {
+            mode = singleTask <= split ? Mode.SINGLE_TASK : Mode.SPLIT_PARALLEL;
+        }
+        return new Plan(mode, size, stages, mode == Mode.SEQUENTIAL ? null : pool());
+    }
+
+    /**
+     * Кількість потоків пулу
+     * @return паралелізм
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // Етапи по одному на потік: тривалість визначає потік, якому дісталося найбільше етапів
+    private double singleTaskWork(double work, int stages) {
+        int rounds = (stages + parallelism - 1) / parallelism;
+        return work / stages * rounds;
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current != null) return current;
+        synchronized (this) {
+            if (pool == null) {
+                ForkJoinPool created = new ForkJoinPool(parallelism, p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName("execution-planner-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+                taskNanos = measureTaskNanos(created);
+                pool = created;
+            }
+            return pool;
+        }
+    }
+
+    // Найменший час запуску порожнього завдання й очікування результату (після прогріву потоків)
+    private static double measureTaskNanos(ForkJoinPool pool) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 32; i++) {
+            long start = System.nanoTime();
+            pool.submit(() -> { }).join();
+            if (i >= 8) best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private void record(Plan plan, long elapsedNanos) {
+        double work = (double) plan.size * plan.stages * nanosPerElement;
+        switch (plan.mode) {
+            case SEQUENTIAL -> {
+                if ((long) plan.size * plan.stages >= MIN_MEASURED_WORK) {
+                    nanosPerElement += WEIGHT * ((double) elapsedNanos / ((long) plan.size * plan.stages) - nanosPerElement);
+                }
+            }
+            case SINGLE_TASK -> {
+                double overhead = Math.max(0, elapsedNanos - singleTaskWork(work, plan.stages));
+                taskNanos += WEIGHT * (overhead - taskNanos);
+            }
+            case SPLIT_PARALLEL -> {
+                double overhead = Math.max(0, elapsedNanos - work / parallelism) / plan.stages;
+                taskNanos += WEIGHT * (overhead - taskNanos);
+            }
+        }
+    }
+
+    /**
+     * Обраний спосіб виконання: виконавець для етапів і потоки чисел відповідного виду
+     */
+    final class Plan {
+        private final Mode mode;
+        private final int size;
+        private final int stages;
+        private final ForkJoinPool pool; // null для послідовного виконання
+        private final long startNanos = System.nanoTime();
+
+        private Plan(Mode mode, int size, int stages, ForkJoinPool pool) {
+            this.mode = mode;
+            this.size = size;
+            this.stages = stages;
+            this.pool = pool;
+        }
+
+        /**
+         * Обраний спосіб
+         * @return спосіб виконання
+         */
+        public Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * Виконавець етапів: потік виклику для послідовного плану, інакше пул планувальника
+         * @return виконавець
+         */
+        public Executor executor() {
+            return pool == null ? Runnable::run : pool;
+        }
+
+        /**
+         * Чи розбивати дані етапу між потоками
+         * @return true для SPLIT_PARALLEL
+         */
+        public boolean split() {
+            return mode == Mode.SPLIT_PARALLEL;
+        }
+
+        /**
+         * Потік чисел етапу: паралельний лише при розбитті (виконується в пулі, з якого викликано)
+         * @param data знімок даних
+         * @return потік чисел
+         */
+        public IntStream stream(Data data) {
+            return split() ? data.stream().parallel() : data.stream();
+        }
+
+        /**
+         * Виконати окреме обчислення згідно з планом: при розбитті - в пулі, інакше в потоці виклику
+         * @param task обчислення
+         * @param <T> тип результату
+         * @return результат
+         */
+        public <T> T compute(Supplier<T> task) {
+            return split() ? pool.submit(task::get).join() : task.get();
+        }
+
+        /**
+         * Завершити план: тривалість від створення уточнює оцінки планувальника
+         */
+        public void finish() {
+            record(this, System.nanoTime() - startNanos);
+        }
+    }
+}
+
+/**
+ * Команда для паралельної обробки даних з використанням CompletableFuture
+ * Демонструє використання сучасних можливостей Java для конкурентного програмування.
+ * Спосіб виконання етапів обирає ExecutionPlanner: малі набори обробляються послідовно
+ * в потоці команди, великі - у пулі планувальника.
+ */
+class ParallelProcessCommand implements Command {
+    private static final int STAGES = 5; // Мінімум, максимум, середнє, вибірки, сума
+
+    private final Data data;
+    private final Filter customFilter; // Фільтр користувача або null
+
+    /**
+     * Конструктор команди паралельної обробки
+     * @param data незмінний знімок чисел, тому потік обробки не залежить від подальшої генерації
+     */
+    public ParallelProcessCommand(Data data) {
+        this(data, null);
+    }
+
+    /**
+     * Конструктор команди паралельної обробки з додатковим фільтром користувача
+     * @param data незмінний знімок чисел
+     * @param customFilter фільтр, для вибірки якого виводиться статистика (може бути null)
+     */
+    public ParallelProcessCommand(Data data, Filter customFilter) {
+        this.data = data;
+        this.customFilter = customFilter;
+    }
+
+    @Override
+    public void execute() {
+        // Перевірка наявності даних
+        if (data.size() == 0) {
+            System.out.println("Немає чисел для обробки. Спочатку згенеруйте дані.");
+            return;
+        }
+
+        System.out.println("Виконується паралельна обробка даних...");
+        PhaseEvent processPhase = FlightEvents.beginPhase(FlightEvents.PROCESS, getClass(), data.size());
+        ExecutionPlanner.Plan plan = ExecutionPlanner.shared().plan(data.size(), STAGES);
+        Executor executor = plan.executor();
+
+        // Створення асинхронних завдань для різних операцій обробки даних
+
+        // Знаходження мінімального значення
+        CompletableFuture<Integer> minFuture = CompletableFuture.supplyAsync(() ->
+                plan.stream(data).min().orElse(0), executor
+        );
+
+        // Знаходження максимального значення
+        CompletableFuture<Integer> maxFuture = CompletableFuture.supplyAsync(() ->
+                plan.stream(data).max().orElse(0), executor
+        );
+
+        // Обчислення середнього значення
+        CompletableFuture<Double> avgFuture = CompletableFuture.supplyAsync(() ->
+                plan.stream(data).average().orElse(0.0), executor
+        );
+
+        // Фільтрація парних чисел і розділення за умовою (більше 50 і менше або рівні 50)
+        // одним паралельним проходом у стиснені бітові вектори замість списків
+        FilterPipeline pipeline = new FilterPipeline()
+                .add("evens", Filter.modulo(2, 0))
+                .add("above", Filter.range(51, Integer.MAX_VALUE))
+                .add("rest", Filter.range(51, Integer.MAX_VALUE).not());
+        if (customFilter != null) {
+            pipeline.add("custom", customFilter);
+        }
+        CompletableFuture<Map<String, SelectionBitmap>> selectionFuture = CompletableFuture.supplyAsync(() ->
+                pipeline.evaluate(data, plan.split()), executor
+        );
+
+        // Обчислення суми всіх чисел
+        CompletableFuture<Double> sumFuture = CompletableFuture.supplyAsync(() ->
+                plan.stream(data).sum() * 1.0, executor
+        );
+
+        // Об'єднання всіх асинхронних завдань
+        CompletableFuture<Void> allDone = CompletableFuture.allOf(
+                minFuture, maxFuture, avgFuture, selectionFuture, sumFuture
+        );
+
+        try {
+            int min;
+            int max;
+            double avg;
+            Map<String, SelectionBitmap> selections;
+            double sum;
+            try {
+                // Очікування завершення всіх завдань
+                allDone.get();
+                plan.finish();
+
+                // Отримання результатів обчислень
+                min = minFuture.get();
+                max = maxFuture.get();
+                avg = avgFuture.get();
+                selections = selectionFuture.get();
+                sum = sumFuture.get();
+            } finally {
+                // Фаза завершується і тоді, коли обробка перервана або завершилася помилкою
+                FlightEvents.endPhase(processPhase);
+            }
+
+            // Виведення результатів обробки
+            System.out.println("\nРезультати паралельної обробки:");
+            System.out.println("Мінімальне число: " + min);
+            System.out.println("Максимальне число: " + max);
+            System.out.println("Середнє значення: " + avg);
+            System.out.println("Парні числа: " + selections.get("evens").formatValues(data));
+            System.out.println("Сума всіх чисел: " + sum);
+            System.out.println("Числа більше 50: " + selections.get("above").formatValues(data));
+            System.out.println("Числа менше або рівні 50: " + selections.get("rest").formatValues(data));
+            if (customFilter != null) {
+                SelectionBitmap custom = selections.get("custom");
+                PartialAggregate selected = plan.compute(() -> custom.aggregate(data, plan.split()));
+                System.out.println("Фільтр " + customFilter + ": " + custom.cardinality() + " чисел"
+                        + (custom.cardinality() == 0 ? "" : ", мінімум " + selected.min() + ", максимум "
+                        + selected.max() + ", середнє " + selected.average() + ", сума " + selected.sum())
+                        + " (вибірка " + custom.sizeInBytes() + " байт)");
+            }
+
+            // Додаткове отримання статистики за допомогою SummaryStatistics
+            PhaseEvent statisticsPhase = FlightEvents.beginPhase(FlightEvents.STATISTICS, getClass(), data.size());
+            DoubleSummaryStatistics stats = plan.compute(() -> plan.stream(data)
+                    .asDoubleStream()
+                    .summaryStatistics());
+            FlightEvents.endPhase(statisticsPhase);
+
+            System.out.println("\nСтатистична обробка:");
+            System.out.println("Кількість елементів: " + stats.getCount());
+            System.out.println("Сума: " + stats.getSum());
+            System.out.println("Мінімум: " + stats.getMin());
+            System.out.println("Максимум: " + stats.getMax());
+            System.out.println("Середнє: " + stats.getAverage());
+
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Помилка при паралельній обробці: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+/**
+ * Часткова статистика частини даних: кількість, мінімум, максимум, сума, кількість парних
+ * чисел і чисел більше 50. Частини об'єднуються в будь-якому порядку, тому їх можна
+ * обчислювати в різних потоках і процесах.
+ */
+record PartialAggregate(long count, int min, int max, long sum, long evens, long above) {
+    static final PartialAggregate EMPTY = new PartialAggregate(0, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 0, 0);
+    static final int BYTES = 8 + 4 + 4 + 8 + 8 + 8; // Розмір у двійковому вигляді
+    private static final int CHUNK_SIZE = 1 << 16; // Кількість чисел в одному блоці паралельної обробки
+
+    /**
+     * Обчислити статистику діапазону паралельно блоками
+     * @param data знімок даних
+     * @param from початковий індекс (включно)
+     * @param to кінцевий індекс (не включно)
+     * @return статистика діапазону
+     */
+    static PartialAggregate of(Data data, int from, int to) {
+        int chunks = (int) (((long) to - from + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> ofChunk(data, from + chunk * CHUNK_SIZE,
+                        (int) Math.min(to, (long) from + (long) (chunk + 1) * CHUNK_SIZE)))
+                .reduce(EMPTY, PartialAggregate::combine);
+    }
+
+    /**
+     * Статистика одного блоку; лічильники оновлюються без умовних переходів,
+     * бо для випадкових чисел умови непередбачувані
+     */
+    private static PartialAggregate ofChunk(Data data, int from, int to) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long sum = 0;
+        long odds = 0;
+        long above = 0;
+        for (int i = from; i < to; i++) {
+            int value = data.get(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            odds += value & 1;
+            above += (50L - value) >>> 63;
+        }
+        return new PartialAggregate(to - from, min, max, sum, (to - from) - odds, above);
+    }
+
+    /**
+     * Прочитати статистику з вмісту кадру RESULT
+     * @param buffer буфер, позиція якого стоїть на початку полів
+     * @return статистика
+     */
+    static PartialAggregate read(ByteBuffer buffer) {
+        return new PartialAggregate(buffer.getLong(), buffer.getInt(), buffer.getInt(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Записати статистику у буфер
+     * @param buffer буфер для запису
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putLong(count).putInt(min).putInt(max).putLong(sum).putLong(evens).putLong(above);
+    }
+
+    /**
+     * Об'єднати з іншою частиною
+     * @param other статистика іншої частини
+     * @return спільна статистика
+     */
+    PartialAggregate combine(PartialAggregate other) {
+        return new PartialAggregate(count + other.count, Math.min(min, other.min), Math.max(max, other.max),
+                sum + other.sum, evens + other.evens, above + other.above);
+    }
+
+    /**
+     * Середнє значення
+     * @return середнє або 0, якщо чисел немає
+     */
+    double average() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Текстовий звіт зі статистикою, по рядку на показник
+     * @return звіт
+     */
+    String format() {
+        return "Мінімальне число: " + min + "\n"
+                + "Максимальне число: " + max + "\n"
+                + "Середнє значення: " + average() + "\n"
+                + "Кількість парних чисел: " + evens + "\n"
+                + "Сума всіх чисел: " + (double) sum + "\n"
+                + "Кількість чисел більше 50: " + above + "\n"
+                + "Кількість чисел менше або рівних 50: " + (count - above) + "\n"
+                + "Кількість елементів: " + count + "\n";
+    }
+}
+
+/**
+ * З'єднання кластерного режиму з компактним двійковим кадруванням.
+ * Кадр: байт типу, довжина вмісту (int) і вміст. TASK містить номер частини, кількість чисел
+ * і самі числа (4 байти на число), RESULT - номер частини і поля PartialAggregate,
+ * SHUTDOWN не має вмісту. Буфер кадру використовується повторно.
+ */
+class ClusterChannel implements AutoCloseable {
+    static final byte TASK = 1;
+    static final byte RESULT = 2;
+    static final byte SHUTDOWN = 3;
+    private static final int RESULT_SIZE = 4 + PartialAggregate.BYTES;
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private ByteBuffer buffer = ByteBuffer.allocate(RESULT_SIZE);
+
+    /**
+     * Конструктор з'єднання
+     * @param socket під'єднаний сокет
+     * @param readTimeoutMillis найдовше очікування кадру (0 - без обмеження)
+     * @throws IOException якщо не вдалося налаштувати сокет
+     */
+    ClusterChannel(Socket socket, int readTimeoutMillis) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(readTimeoutMillis);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), STREAM_BUFFER_SIZE));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), STREAM_BUFFER_SIZE));
+    }
+
+    /**
+     * Надіслати частину даних на обробку
+     * @param partition номер частини
+     * @param data знімок даних
+     * @param from початковий індекс (включно)
+     * @param to кінцевий індекс (не включно)
+     * @throws IOException якщо з'єднання втрачено
+     */
+    void sendTask(int partition, Data data, int from, int to) throws IOException {
+        ByteBuffer payload = prepare(8 + (to - from) * 4);
+        payload.putInt(partition).putInt(to - from);
+        data.copyTo(from, to, payload.asIntBuffer());
+        send(TASK, payload.limit());
+    }
+
+    /**
+     * Надіслати статистику обробленої частини
+     * @param partition номер частини
+     * @param aggregate статистика частини
+     * @throws IOException якщо з'єднання втрачено
+     */
+    void sendResult(int partition, PartialAggregate aggregate) throws IOException {
+        ByteBuffer payload = prepare(RESULT_SIZE);
+        payload.putInt(partition);
+        aggregate.write(payload);
+        send(RESULT, RESULT_SIZE);
+    }
+
+    /**
+     * Попросити робочий процес завершитися
+     * @throws IOException якщо з'єднання втрачено
+     */
+    void sendShutdown() throws IOException {
+        send(SHUTDOWN, 0);
+    }
+
+    /**
+     * Прочитати наступний кадр; його вміст доступний через payload()
+     * @return тип кадру
+     * @throws IOException якщо з'єднання втрачено або кадр некоректний
+     */
+    byte readFrame() throws IOException {
+        byte type = in.readByte();
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Некоректна довжина кадру: " + length);
+        }
+        ByteBuffer payload = prepare(length);
+        in.readFully(payload.array(), 0, length);
+        return type;
+    }
+
+    /**
+     * Вміст останнього прочитаного кадру
+     * @return буфер з позицією на початку вмісту
+     */
+    ByteBuffer payload() {
+        return buffer;
+    }
+
+    /**
+     * Чи закрито з'єднання
+     * @return true, якщо з'єднання закрито
+     */
+    boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Помилка закриття з'єднання кластера: " + e.getMessage());
+        }
+    }
+
+    private ByteBuffer prepare(int length) {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear().limit(length);
+        return buffer;
+    }
+
+    private void send(byte type, int length) throws IOException {
+        out.writeByte(type);
+        out.writeInt(length);
+        out.write(buffer.array(), 0, length);
+        out.flush();
+    }
+}
+
+/**
+ * Робочий процес кластера: під'єднується до координатора і обробляє частини даних,
+ * доки не отримає SHUTDOWN або з'єднання не закриється.
+ * Запускається як {@code task1.Main task6 worker coordinator=host:port}.
+ */
+final class ClusterWorker {
+    private ClusterWorker() {}
+
+    /**
+     * Обслуговувати координатора
+     * @param host адреса координатора
+     * @param port порт координатора
+     */
+    static void serve(String host, int port) {
+        try (ClusterChannel channel = new ClusterChannel(new Socket(host, port), 0)) {
+            int[] values = new int[0];
+            while (true) {
+                byte type = channel.readFrame();
+                if (type == ClusterChannel.SHUTDOWN) {
+                    return;
+                }
+                if (type != ClusterChannel.TASK) {
+                    throw new IOException("Невідомий тип кадру: " + type);
+                }
+                ByteBuffer payload = channel.payload();
+                int partition = payload.getInt();
+                int count = payload.getInt();
+                if (values.length != count) {
+                    values = new int[count];
+                }
+                payload.asIntBuffer().get(values);
+                channel.sendResult(partition, PartialAggregate.of(new Data(values), 0, count));
+            }
+        } catch (EOFException e) {
+            // Координатор закрив з'єднання без SHUTDOWN - звичайне завершення
+        } catch (IOException e) {
+            System.err.println("Помилка робочого процесу кластера: " + e.getMessage());
+        }
+    }
+}
+
+/**
+ * Координатор кластерного режиму: ділить знімок даних на частини, розсилає їх робочим
+ * процесам (до двох частин у польоті на процес, щоб мережа і обчислення перекривалися)
+ * і об'єднує часткову статистику. Частини втраченого процесу повертаються в спільну чергу
+ * і дістаються іншим процесам; якщо не лишилося жодного, решта обробляється локально.
+ */
+class ClusterCoordinator implements AutoCloseable {
+    private static final int IN_FLIGHT = 2;
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+
+    private final ServerSocket serverSocket;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<ClusterChannel> channels = new ArrayList<>();
+    private final AtomicInteger reassigned = new AtomicInteger();
+
+    /**
+     * Запустити координатора і дочекатися під'єднання робочих процесів
+     * @param workers кількість робочих процесів
+     * @param port порт координатора (0 - будь-який вільний)
+     * @param spawn true - запустити робочі JVM локально (loopback),
+     *              false - чекати процеси, запущені вручну на інших машинах
+     * @throws IOException якщо не вдалося відкрити порт або запустити процеси
+     */
+    ClusterCoordinator(int workers, int port, boolean spawn) throws IOException {
+        serverSocket = new ServerSocket(port, workers, spawn ? InetAddress.getLoopbackAddress() : null);
+        try {
+            if (spawn) {
+                for (int i = 0; i < workers; i++) {
+                    processes.add(startWorker(serverSocket.getLocalPort()));
+                }
+            } else {
+                System.out.println("Очікування робочих процесів на порту " + serverSocket.getLocalPort() + "...");
+            }
+            serverSocket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            for (int i = 0; i < workers; i++) {
+                channels.add(new ClusterChannel(serverSocket.accept(), READ_TIMEOUT_MILLIS));
+            }
+        } catch (SocketTimeoutException e) {
+            System.err.println("Під'єдналося робочих процесів: " + channels.size() + " з " + workers);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Обробити знімок даних у кластері
+     * @param data знімок даних
+     * @param partitionSize кількість чисел в одній частині
+     * @return статистика всього набору
+     * @throws InterruptedException якщо очікування перервано
+     */
+    PartialAggregate process(Data data, int partitionSize) throws InterruptedException {
+        int partitions = (int) (((long) data.size() + partitionSize - 1) / partitionSize);
+        BlockingQueue<Integer> pending = new LinkedBlockingQueue<>();
+        for (int i = 0; i < partitions; i++) {
+            pending.add(i);
+        }
+        PartialAggregate[] results = new PartialAggregate[partitions];
+        CountDownLatch remaining = new CountDownLatch(partitions);
+        List<ClusterChannel> open = channels.stream().filter(channel -> !channel.isClosed()).toList();
+        AtomicInteger alive = new AtomicInteger(open.size());
+        for (ClusterChannel channel : open) {
+            Thread feeder = new Thread(() -> feed(channel, data, partitionSize, pending, results, remaining, alive),
+                    "cluster-feeder");
+            feeder.setDaemon(true);
+            feeder.start();
+        }
+
+        while (!remaining.await(100, TimeUnit.MILLISECONDS)) {
+            if (alive.get() == 0) {
+                // Жодного робочого процесу не лишилося: решта частин обробляється в цьому процесі
+                Integer partition;
+                while ((partition = pending.poll()) != null) {
+                    int from = partition * partitionSize;
+                    results[partition] = PartialAggregate.of(data, from, Math.min(data.size(), from + partitionSize));
+                    remaining.countDown();
+                }
+            }
+        }
+        return Arrays.stream(results).reduce(PartialAggregate.EMPTY, PartialAggregate::combine);
+    }
+
+    /**
+     * Кількість частин, перепризначених після втрати робочих процесів
+     * @return кількість перепризначених частин
+     */
+    int getReassigned() {
+        return reassigned.get();
+    }
+
+    /**
+     * Кількість під'єднаних робочих процесів, з'єднання з якими не втрачено
+     * @return кількість робочих процесів
+     */
+    int getWorkerCount() {
+        return (int) channels.stream().filter(channel -> !channel.isClosed()).count();
+    }
+
+    @Override
+    public void close() {
+        for (ClusterChannel channel : channels) {
+            if (!channel.isClosed()) {
+                try {
+                    channel.sendShutdown();
+                } catch (IOException e) {
+                    // Процес уже недоступний - достатньо закрити з'єднання
+                }
+                channel.close();
+            }
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Помилка закриття порту координатора: " + e.getMessage());
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Цикл одного з'єднання: надсилає частини з черги, тримаючи до IN_FLIGHT частин у польоті,
+     * і приймає результати. При втраті з'єднання незавершені частини повертаються в чергу
+     */
+    private void feed(ClusterChannel channel, Data data, int partitionSize, BlockingQueue<Integer> pending,
+                      PartialAggregate[] results, CountDownLatch remaining, AtomicInteger alive) {
+        Set<Integer> inFlight = new HashSet<>();
+        try {
+            while (remaining.getCount() > 0) {
+                Integer partition = inFlight.size() < IN_FLIGHT
+                        ? pending.poll(inFlight.isEmpty() ? 50 : 0, TimeUnit.MILLISECONDS) : null;
+                if (partition != null) {
+                    int from = partition * partitionSize;
+                    inFlight.add(partition);
+                    channel.sendTask(partition, data, from, Math.min(data.size(), from + partitionSize));
+                    continue;
+                }
+                if (inFlight.isEmpty()) {
+                    continue;
+                }
+                if (channel.readFrame() != ClusterChannel.RESULT) {
+                    throw new IOException("Очікувався кадр RESULT");
+                }
+                ByteBuffer payload = channel.payload();
+                int done = payload.getInt();
+                if (!inFlight.remove(done)) {
+                    throw new IOException("Результат для частини, яку не надсилали: " + done);
+                }
+                results[done] = PartialAggregate.read(payload);
+                remaining.countDown();
+            }
+        } catch (IOException e) {
+            System.err.println("Втрачено робочий процес кластера: " + e.getMessage());
+            channel.close();
+            reassigned.addAndGet(inFlight.size());
+            pending.addAll(inFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.addAll(inFlight);
+        } finally {
+            alive.decrementAndGet();
+        }
+    }
+
+    /**
+     * Запустити робочу JVM з тим самим шляхом класів
+     * @param port порт координатора на loopback
+     * @return процес робочої JVM
+     * @throws IOException якщо процес не вдалося запустити
+     */
+    private static Process startWorker(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview")) {
+            command.add("--enable-preview");
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), "task1.Main", "task6", "worker",
+                "coordinator=" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port));
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+}
+
+/**
+ * Команда кластерної обробки: статистика обчислюється в кількох JVM,
+ * тож обробка не обмежена ядрами, купою і збиранням сміття одного процесу
+ */
+class ClusterProcessCommand implements Command {
+    private static final int MAX_PARTITION_SIZE = 1 << 26; // Частина до 256 МБ у кадрі
+
+    private final Data data;
+    private final int workers;
+    private final int partitionSize;
+    private final int port;
+    private final boolean spawn;
+
+    /**
+     * Конструктор команди кластерної обробки
+     * @param data незмінний знімок чисел
+     * @param workers кількість робочих процесів
+     * @param partitionSize кількість чисел в одній частині
+     * @param port порт координатора (0 - будь-який вільний)
+     * @param spawn true - запустити робочі JVM локально, false - чекати зовнішні процеси
+     */
+    public ClusterProcessCommand(Data data, int workers, int partitionSize, int port, boolean spawn) {
+        if (partitionSize <= 0 || partitionSize > MAX_PARTITION_SIZE) {
+            throw new IllegalArgumentException("Некоректний розмір частини: " + partitionSize);
+        }
+        this.data = data;
+        this.workers = workers;
+        this.partitionSize = partitionSize;
+        this.port = port;
+        this.spawn = spawn;
+    }
+
+    @Override
+    public void execute() {
+        if (data.size() == 0) {
+            System.out.println("Немає чисел для обробки. Спочатку згенеруйте дані.");
+            return;
+        }
+
+        System.out.println("Виконується кластерна обробка даних (робочих процесів: " + workers + ")...");
+        try (ClusterCoordinator coordinator = new ClusterCoordinator(workers, port, spawn)) {
+            PartialAggregate result = coordinator.process(data, partitionSize);
+            System.out.println("\nРезультати кластерної обробки:");
+            System.out.print(result.format());
+            System.out.println("Робочих процесів до кінця обробки: " + coordinator.getWorkerCount()
+                    + ", перепризначено частин: " + coordinator.getReassigned());
+        } catch (IOException e) {
+            System.err.println("Помилка кластерної обробки: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Кластерну обробку перервано: " + e.getMessage());
+        }
+    }
+}
+
+/**
+ * Команда генерації випадкових чисел безпосередньо в позакупний набір даних.
+ * Блоки заповнюються паралельно; кожен блок має власний генератор із зерна та номера блоку,
+ * тож результат не залежить від кількості потоків
+ */
+class OffHeapGenerateCommand implements Command {
+    private final OffHeapData data;
+    private final int bound;
+    private final long seed;
+
+    /**
+     * Конструктор команди генерації
+     * @param data набір даних для заповнення
+     * @param bound верхня межа для генерації випадкових чисел
+     * @param seed зерно генератора
+     */
+    public OffHeapGenerateCommand(OffHeapData data, int bound, long seed) {
+        this.data = data;
+        this.bound = bound;
+        this.seed = seed;
+    }
+
+    @Override
+    public void execute() {
+        data.parallelChunks().forEach(chunk -> {
+            SplittableRandom random = new SplittableRandom(seed ^ (chunk * 0x9E3779B97F4A7C15L));
+            long from = chunk * OffHeapData.CHUNK_SIZE;
+            long to = Math.min(data.size(), from + OffHeapData.CHUNK_SIZE);
+            for (long i = from; i < to; i++) {
+                data.set(i, random.nextInt(bound));
+            }
+        });
+        System.out.println("Згенеровано чисел поза купою: " + data.size());
+    }
+}
+
+/**
+ * Команда статистичної обробки позакупного набору даних: блоки читаються паралельно
+ * прямо з прямих буферів, без копіювання в купу
+ */
+class OffHeapProcessCommand implements Command {
+    private final OffHeapData data;
+
+    /**
+     * Конструктор команди обробки
+     * @param data позакупний набір даних
+     */
+    public OffHeapProcessCommand(OffHeapData data) {
+        this.data = data;
+    }
+
+    @Override
+    public void execute() {
+        if (data.size() == 0) {
+            System.out.println("Немає чисел для обробки. Спочатку згенеруйте дані.");
+            return;
+        }
+        System.out.println("Виконується обробка даних поза купою...");
+        PartialAggregate result = data.parallelChunks()
+                .mapToObj(data::aggregateChunk)
+                .reduce(PartialAggregate.EMPTY, PartialAggregate::combine);
+        System.out.println("\nРезультати обробки даних поза купою:");
+        System.out.print(result.format());
+    }
+}
+
+/**
+ * Порядкові статистики знімка даних: точна медіана, значення за рангом, перцентилі,
+ * кількість чисел, менших за задане, і k найбільших чисел.
+ * Стратегію обрано за діапазоном значень: якщо max - min менше COUNTING_RANGE_LIMIT,
+ * будується паралельна гістограма підрахунком, і всі запити за рангом відповідаються по ній.
+ * Інакше використовується порозрядний вибір: гістограма старших 16 біт (знаковий біт інвертовано)
+ * визначає кошик потрібного рангу, а один паралельний прохід рахує молодші 16 біт лише
+ * в потрібних кошиках - без копіювання і сортування даних. Для top-k у цьому випадку
+ * використовуються купи розміру k в кожному паралельному блоці.
+ */
+class OrderStatistics {
+    /**
+     * Спосіб відповіді на запити за рангом
+     */
+    enum Strategy { COUNTING, RADIX_SELECT }
+
+    static final int COUNTING_RANGE_LIMIT = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int BUCKETS = 1 << 16;
+
+    private final Data data;
+    private final Strategy strategy;
+    private final int offset; // Значення, що відповідає кошику 0
+    private final long[] histogram; // COUNTING: кількість кожного значення; RADIX_SELECT: старших 16 біт
+
+    /**
+     * Конструктор: прохід для діапазону значень і прохід для гістограми
+     * @param data знімок даних
+     */
+    public OrderStatistics(Data data) {
+        this.data = data;
+        PartialAggregate range = PartialAggregate.of(data, 0, data.size());
+        if (data.size() > 0 && (long) range.max() - range.min() < COUNTING_RANGE_LIMIT) {
+            strategy = Strategy.COUNTING;
+            offset = range.min();
+            histogram = buildHistogram(range.max() - range.min() + 1, value -> value - offset);
+        } else {
+            strategy = Strategy.RADIX_SELECT;
+            offset = Integer.MIN_VALUE;
+            histogram = buildHistogram(BUCKETS, OrderStatistics::high);
+        }
+    }
+
+    /**
+     * Обрана стратегія
+     * @return стратегія
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Числа з заданими рангами у порядку зростання; для RADIX_SELECT усі ранги
+     * обчислюються за один прохід даних
+     * @param ranks ранги від 0 до size() - 1
+     * @return числа у порядку рангів
+     */
+    public int[] valuesAtRanks(long... ranks) {
+        int[] values = new int[ranks.length];
+        int[] buckets = new int[ranks.length];
+        long[] residual = new long[ranks.length]; // Ранг усередині кошика
+        for (int i = 0; i < ranks.length; i++) {
+            Objects.checkIndex(ranks[i], data.size());
+            long seen = 0;
+            int bucket = 0;
+            while (seen + histogram[bucket] <= ranks[i]) {
+                seen += histogram[bucket++];
+            }
+            buckets[i] = bucket;
+            residual[i] = ranks[i] - seen;
+            values[i] = offset + bucket;
+        }
+        if (strategy == Strategy.COUNTING) {
+            return values;
+        }
+
+        // Молодші 16 біт лише для кошиків, у які потрапили ранги
+        int[] slotOf = new int[BUCKETS];
+        Arrays.fill(slotOf, -1);
+        int slots = 0;
+        for (int bucket : buckets) {
+            if (slotOf[bucket] < 0) slotOf[bucket] = slots++;
+        }
+        int slotCount = slots;
+        long[][] low = IntStream.range(0, chunks()).parallel()
+                .collect(() -> new long[slotCount][BUCKETS], (counts, chunk) -> {
+                    for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+                        int value = data.get(i);
+                        int slot = slotOf[high(value)];
+                        if (slot >= 0) counts[slot][value & 0xFFFF]++;
+                    }
+                }, (left, right) -> {
+                    for (int slot = 0; slot < slotCount; slot++) {
+                        for (int i = 0; i < BUCKETS; i++) left[slot][i] += right[slot][i];
+                    }
+                });
+        for (int i = 0; i < ranks.length; i++) {
+            long[] counts = low[slotOf[buckets[i]]];
+            long seen = 0;
+            int lowBits = 0;
+            while (seen + counts[lowBits] <= residual[i]) {
+                seen += counts[lowBits++];
+            }
+            values[i] = ((buckets[i] << 16) | lowBits) ^ Integer.MIN_VALUE;
+        }
+        return values;
+    }
+
+    /**
+     * Точна медіана (для парної кількості - середнє двох середніх чисел)
+     * @return медіана
+     */
+    public double median() {
+        long n = data.size();
+        if (n == 0) throw new NoSuchElementException("Немає чисел");
+        int[] middle = valuesAtRanks((n - 1) / 2, n / 2);
+        return (middle[0] + (double) middle[1]) / 2;
+    }
+
+    /**
+     * Перцентилі за методом найближчого рангу, обчислені разом
+     * @param percents перцентилі (0..100)
+     * @return числа, не менше яких відповідні відсотки чисел
+     */
+    public int[] percentiles(double... percents) {
+        long n = data.size();
+        if (n == 0) throw new NoSuchElementException("Немає чисел");
+        long[] ranks = new long[percents.length];
+        for (int i = 0; i < percents.length; i++) {
+            ranks[i] = Math.min(n, Math.max(1, (long) Math.ceil(percents[i] / 100 * n))) - 1;
+        }
+        return valuesAtRanks(ranks);
+    }
+
+    /**
+     * Кількість чисел, строго менших за value (ранг значення)
+     * @param value число
+     * @return кількість менших чисел
+     */
+    public long countBelow(int value) {
+        if (strategy == Strategy.RADIX_SELECT) {
+            return IntStream.range(0, chunks()).parallel().mapToLong(chunk -> {
+                long count = 0;
+                for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+                    count += ((long) data.get(i) - value) >>> 63;
+                }
+                return count;
+            }).sum();
+        }
+        long count = 0;
+        for (int i = 0; i < histogram.length && offset + (long) i < value; i++) {
+            count += histogram[i];
+        }
+        return count;
+    }
+
+    /**
+     * k найбільших чисел у порядку спадання
+     * @param k кількість чисел
+     * @return масив з min(k, size()) чисел
+     * @throws IllegalArgumentException якщо k від'ємне
+     */
+    public int[] topK(int k) {
+        if (k < 0) throw new IllegalArgumentException("Кількість найбільших чисел не може бути від'ємною: " + k);
+        int n = Math.min(k, data.size());
+        if (n == 0) return new int[0];
+        if (strategy == Strategy.COUNTING) {
+            int[] result = new int[n];
+            int filled = 0;
+            for (int i = histogram.length - 1; i >= 0 && filled < n; i--) {
+                int repeat = (int) Math.min(histogram[i], n - filled);
+                Arrays.fill(result, filled, filled + repeat, offset + i);
+                filled += repeat;
+            }
+            return result;
+        }
+        return IntStream.range(0, chunks()).parallel()
+                .collect(() -> new IntMinHeap(n), (heap, chunk) -> {
+                    for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+                        heap.offer(data.get(i));
+                    }
+                }, IntMinHeap::offerAll)
+                .toDescendingArray();
+    }
+
+    private static int high(int value) {
+        return (value ^ Integer.MIN_VALUE) >>> 16;
+    }
+
+    private int chunks() {
+        return (data.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private int chunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private int chunkEnd(int chunk) {
+        return (int) Math.min(data.size(), (long) (chunk + 1) * CHUNK_SIZE);
+    }
+
+    private long[] buildHistogram(int size, IntUnaryOperator bucketOf) {
+        return IntStream.range(0, chunks()).parallel()
+                .collect(() -> new long[size], (counts, chunk) -> {
+                    for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+                        counts[bucketOf.applyAsInt(data.get(i))]++;
+                    }
+                }, (left, right) -> {
+                    for (int i = 0; i < size; i++) left[i] += right[i];
+                });
+    }
+
+    /**
+     * Купа з найменшим числом у корені, що зберігає не більше capacity найбільших чисел
+     */
+    private static final class IntMinHeap {
+        private final int[] heap;
+        private int size;
+
+        IntMinHeap(int capacity) {
+            heap = new int[capacity];
+        }
+
+        void offer(int value) {
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0 && heap[(i - 1) / 2] > value) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = value;
+            } else if (value > heap[0]) {
+                siftDown(value);
+            }
+        }
+
+        void offerAll(IntMinHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.heap[i]);
+            }
+        }
+
+        int[] toDescendingArray() {
+            int[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                int swap = result[i];
+                result[i] = result[j];
+                result[j] = swap;
+            }
+            return result;
+        }
+
+        private void siftDown(int value) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+                if (heap[child] >= value) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = value;
+        }
+    }
+}
+
+/**
+ * Команда обчислення порядкових статистик: медіана, квартилі, перцентилі та k найбільших чисел
  */
-class GenerateAndDisplayCommand implements Command {
-    private final List<Integer> numbers;
-    private final int count;
-    private final int bound;
-    private final DisplayFactory displayFactory;
-    private final int columns;
-    private final int cellWidth;
+class OrderStatisticsCommand implements Command {
+    private final Data data;
+    private final int k;
 
     /**
-     * Конструктор команди генерації та відображення
-     * @param numbers список для зберігання згенерованих чисел
-     * @param count кількість чисел для генерації
-     * @param bound верхня межа для генерації випадкових чисел
-     * @param displayFactory фабрика для створення відображення
-     * @param columns кількість стовпців для відображення
-     * @param cellWidth ширина клітинки для відображення
+     * Конструктор команди порядкових статистик
+     * @param data незмінний знімок чисел
+     * @param k кількість найбільших чисел для виведення
+     * @throws IllegalArgumentException якщо k від'ємне
      */
-    public GenerateAndDisplayCommand(List<Integer> numbers, int count, int bound,
-                                     DisplayFactory displayFactory, int columns, int cellWidth) {
-        this.numbers = numbers;
-        this.count = count;
-        this.bound = bound;
-        this.displayFactory = displayFactory;
-        this.columns = columns;
-        this.cellWidth = cellWidth;
+    public OrderStatisticsCommand(Data data, int k) {
+        if (k < 0) throw new IllegalArgumentException("Кількість найбільших чисел не може бути від'ємною: " + k);
+        this.data = data;
+        this.k = k;
     }
 
     @Override
     public void execute() {
-        // Очищення попередніх даних
-        numbers.clear();
-        Random random = new Random();
-
-        // Генерація нових випадкових чисел
-        for (int i = 0; i < count; i++) {
-            numbers.add(random.nextInt(bound));
+        if (data.size() == 0) {
+            System.out.println("Немає чисел для обробки. Спочатку згенеруйте дані.");
+            return;
         }
-        System.out.println("Згенеровані числа: " + numbers);
-
-        // Відображення згенерованих чисел у вигляді таблиці
-        Calculator calculator = new Calculator(numbers, displayFactory);
-        calculator.displayCustomResults(columns, cellWidth);
+        OrderStatistics statistics = new OrderStatistics(data);
+        int[] percentiles = statistics.percentiles(25, 50, 75, 90, 99);
+        System.out.println("\nПорядкові статистики (стратегія " + statistics.getStrategy() + "):");
+        System.out.println("Медіана: " + statistics.median());
+        System.out.println("Квартилі: " + percentiles[0] + ", " + percentiles[1] + ", " + percentiles[2]);
+        System.out.println("Перцентилі p90, p99: " + percentiles[3] + ", " + percentiles[4]);
+        System.out.println("Найбільші " + Math.min(k, data.size()) + " чисел: " + Arrays.toString(statistics.topK(k)));
     }
 }
 
 /**
- * Команда для паралельної обробки даних з використанням CompletableFuture
- * Демонструє використання сучасних можливостей Java для конкурентного програмування
+ * Неблокуючий TCP-фронтенд рушія команд: один потік із Selector приймає з'єднання і читає
+ * запити, а виконання відбувається в CommandManager.
+ * Протокол - кадри з префіксом довжини (int, без самого префікса). Запит: номер запиту (int),
+ * операція (байт) і параметри: GENERATE - кількість і верхня межа (int, int), PROCESS - без
+ * параметрів. Відповідь: номер запиту, статус (0 - успіх, 1 - помилка) і вміст: для GENERATE
+ * кількість згенерованих чисел, для PROCESS поля PartialAggregate, для помилки текст у UTF-8.
+ * Запити можна надсилати конвеєром: усі повні кадри, прочитані за раз, стають однією пакетною
+ * командою, а відповіді повертаються в порядку запитів. Кожне з'єднання має власний набір даних.
  */
-class ParallelProcessCommand implements Command {
-    private final List<Integer> numbers;
+class CommandServer implements AutoCloseable {
+    static final byte GENERATE = 1;
+    static final byte PROCESS = 2;
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+    private static final int MAX_FRAME = 1 << 16;
+    private static final int MAX_GENERATE = 1 << 24; // Найбільша кількість чисел у запиті GENERATE
+    private static final int MAX_PENDING_BATCHES = 64; // Після цього з'єднання перестає читатися
+
+    private final CommandManager commandManager;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
 
     /**
-     * Конструктор команди паралельної обробки
-     * @param numbers список чисел для обробки
+     * Відкрити порт і запустити потік обробки з'єднань
+     * @param host адреса, на якій слухати
+     * @param port порт (0 - будь-який вільний)
+     * @param commandManager менеджер, у якому виконуються запити
+     * @throws IOException якщо порт не вдалося відкрити
      */
-    public ParallelProcessCommand(List<Integer> numbers) {
-        this.numbers = numbers;
+    CommandServer(String host, int port, CommandManager commandManager) throws IOException {
+        this.commandManager = commandManager;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(host, port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::loop, "command-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Порт, на якому слухає сервер
+     * @return номер порту
+     */
+    int getPort() {
+        return serverChannel.socket().getLocalPort();
     }
 
     @Override
-    public void execute() {
-        // Перевірка наявності даних
-        if (numbers.isEmpty()) {
-            System.out.println("Немає чисел для обробки. Спочатку згенеруйте дані.");
-            return;
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        System.out.println("Виконується паралельна обробка даних...");
+    private void loop() {
+        try {
+            while (running) {
+                selector.select();
+                for (Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext(); ) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) connection.read();
+                            if (key.isValid() && key.isWritable()) connection.write();
+                        } catch (IOException e) {
+                            connection.close();
+                        }
+                    }
+                }
+                // Відповіді готових пакетів: спроба записати одразу, решта - за OP_WRITE
+                Connection connection;
+                while ((connection = completed.poll()) != null) {
+                    try {
+                        connection.write();
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка сервера команд: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    System.err.println("Помилка закриття з'єднання: " + e.getMessage());
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Помилка закриття сервера команд: " + e.getMessage());
+            }
+        }
+    }
 
-        // Створення асинхронних завдань для різних операцій обробки даних
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
 
-        // Знаходження мінімального значення
-        CompletableFuture<Integer> minFuture = CompletableFuture.supplyAsync(() ->
-                numbers.parallelStream().min(Integer::compare).orElse(0)
-        );
+    /**
+     * Запит одного кадру
+     */
+    private record Request(int id, byte operation, int count, int bound) {}
 
-        // Знаходження максимального значення
-        CompletableFuture<Integer> maxFuture = CompletableFuture.supplyAsync(() ->
-                numbers.parallelStream().max(Integer::compare).orElse(0)
-        );
+    /**
+     * Стан одного з'єднання. Буфери читання і запису використовуються лише потоком Selector,
+     * набір даних - лише потоком CommandManager, що виконує пакети з'єднання по черзі
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer input = ByteBuffer.allocate(MAX_FRAME + 4);
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingBatches = new AtomicInteger();
+        private Data data = new Data(new int[0]);
 
-        // Обчислення середнього значення
-        CompletableFuture<Double> avgFuture = CompletableFuture.supplyAsync(() ->
-                numbers.parallelStream().mapToInt(Integer::intValue).average().orElse(0.0)
-        );
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
 
-        // Фільтрація парних чисел
-        CompletableFuture<List<Integer>> evenFuture = CompletableFuture.supplyAsync(() ->
-                numbers.parallelStream().filter(n -> n % 2 == 0).collect(Collectors.toList())
-        );
+        void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            List<Request> batch = new ArrayList<>();
+            while (input.remaining() >= 4) {
+                int length = input.getInt(input.position());
+                if (length < 5 || length > MAX_FRAME) {
+                    throw new IOException("Некоректна довжина кадру: " + length);
+                }
+                if (input.remaining() < 4 + length) break;
+                int end = input.position() + 4 + length;
+                input.getInt();
+                int id = input.getInt();
+                byte operation = input.get();
+                boolean withParameters = operation == GENERATE && end - input.position() >= 8;
+                batch.add(new Request(id, operation, withParameters ? input.getInt() : 0,
+                        withParameters ? input.getInt() : 0));
+                input.position(end);
+            }
+            input.compact();
+            if (!batch.isEmpty()) {
+                pendingBatches.incrementAndGet();
+                commandManager.executeCommand(new RemoteBatchCommand(batch));
+                updateInterest();
+            }
+        }
 
-        // Обчислення суми всіх чисел
-        CompletableFuture<Double> sumFuture = CompletableFuture.supplyAsync(() ->
-                numbers.parallelStream().mapToInt(Integer::intValue).sum() * 1.0
-        );
+        void write() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = output.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) break;
+                output.poll();
+            }
+            updateInterest();
+        }
 
-        // Розділення чисел на групи за умовою (більше 50 і менше або рівні 50)
-        CompletableFuture<Map<Boolean, List<Integer>>> partitionFuture = CompletableFuture.supplyAsync(() ->
-                numbers.parallelStream().collect(Collectors.partitioningBy(n -> n > 50))
-        );
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Помилка закриття з'єднання: " + e.getMessage());
+            }
+        }
 
-        // Об'єднання всіх асинхронних завдань
-        CompletableFuture<Void> allDone = CompletableFuture.allOf(
-                minFuture, maxFuture, avgFuture, evenFuture, sumFuture, partitionFuture
-        );
+        private void updateInterest() {
+            if (!key.isValid()) return;
+            int ops = pendingBatches.get() < MAX_PENDING_BATCHES ? SelectionKey.OP_READ : 0;
+            if (!output.isEmpty()) ops |= SelectionKey.OP_WRITE;
+            key.interestOps(ops);
+        }
 
-        try {
-            // Очікування завершення всіх завдань
-            allDone.get();
+        /**
+         * Пакет запитів з'єднання, що виконується в потоці CommandManager
+         */
+        private final class RemoteBatchCommand implements Command {
+            private final List<Request> requests;
 
-            // Отримання результатів обчислень
-            int min = minFuture.get();
-            int max = maxFuture.get();
-            double avg = avgFuture.get();
-            List<Integer> evens = evenFuture.get();
-            double sum = sumFuture.get();
-            Map<Boolean, List<Integer>> partitioned = partitionFuture.get();
+            RemoteBatchCommand(List<Request> requests) {
+                this.requests = requests;
+            }
 
-            // Виведення результатів обробки
-            System.out.println("\nРезультати паралельної обробки:");
-            System.out.println("Мінімальне число: " + min);
-            System.out.println("Максимальне число: " + max);
-            System.out.println("Середнє значення: " + avg);
-            System.out.println("Парні числа: " + evens);
-            System.out.println("Сума всіх чисел: " + sum);
-            System.out.println("Числа більше 50: " + partitioned.get(true));
-            System.out.println("Числа менше або рівні 50: " + partitioned.get(false));
+            @Override
+            public void execute() {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(requests.size() * 64);
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    for (Request request : requests) {
+                        respond(request, out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    output.add(ByteBuffer.wrap(bytes.toByteArray()));
+                    pendingBatches.decrementAndGet();
+                    completed.add(Connection.this);
+                    selector.wakeup();
+                }
+            }
 
-            // Додаткове отримання статистики за допомогою SummaryStatistics
-            DoubleSummaryStatistics stats = numbers.parallelStream()
-                    .mapToDouble(Integer::doubleValue)
-                    .summaryStatistics();
+            private void respond(Request request, DataOutputStream out) throws IOException {
+                switch (request.operation()) {
+                    case GENERATE -> {
+                        if (request.count() < 0 || request.count() > MAX_GENERATE || request.bound() <= 0) {
+                            error(request, out, "Некоректні параметри генерації");
+                            return;
+                        }
+                        int[] values = new int[request.count()];
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = random.nextInt(request.bound());
+                        }
+                        data = new Data(values);
+                        out.writeInt(4 + 1 + 4);
+                        out.writeInt(request.id());
+                        out.writeByte(STATUS_OK);
+                        out.writeInt(values.length);
+                    }
+                    case PROCESS -> {
+                        if (data.size() == 0) {
+                            error(request, out, "Немає чисел для обробки");
+                            return;
+                        }
+                        ByteBuffer aggregate = ByteBuffer.allocate(PartialAggregate.BYTES);
+                        PartialAggregate.of(data, 0, data.size()).write(aggregate);
+                        out.writeInt(4 + 1 + PartialAggregate.BYTES);
+                        out.writeInt(request.id());
+                        out.writeByte(STATUS_OK);
+                        out.write(aggregate.array());
+                    }
+                    default -> error(request, out, "Невідома операція: " + request.operation());
+                }
+            }
 
-            System.out.println("\nСтатистична обробка:");
-            System.out.println("Кількість елементів: " + stats.getCount());
-            System.out.println("Сума: " + stats.getSum());
-            System.out.println("Мінімум: " + stats.getMin());
-            System.out.println("Максимум: " + stats.getMax());
-            System.out.println("Середнє: " + stats.getAverage());
+            private void error(Request request, DataOutputStream out, String message) throws IOException {
+                byte[] text = message.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(4 + 1 + text.length);
+                out.writeInt(request.id());
+                out.writeByte(STATUS_ERROR);
+                out.write(text);
+            }
+        }
+    }
+}
 
-        } catch (InterruptedException | ExecutionException e) {
-            System.err.println("Помилка при паралельній обробці: " + e.getMessage());
-            Thread.currentThread().interrupt();
+/**
+ * Навантажувальний клієнт сервера команд: кожне з'єднання надсилає запити конвеєром
+ * (не більше depth без відповіді) і вимірює затримку від надсилання до отримання відповіді.
+ * Кожен десятий запит - GENERATE, решта - PROCESS над щойно згенерованими числами.
+ */
+final class LoadTestClient {
+    private LoadTestClient() {}
+
+    /**
+     * Виконати навантажувальний тест і вивести звіт
+     * @param host адреса сервера
+     * @param port порт сервера
+     * @param connections кількість з'єднань
+     * @param requests кількість запитів на з'єднання
+     * @param depth найбільша кількість запитів без відповіді на з'єднання
+     * @param count кількість чисел у запиті GENERATE
+     * @throws InterruptedException якщо очікування перервано
+     */
+    static void run(String host, int port, int connections, int requests, int depth, int count)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    drive(host, port, requests, depth, count, latency, errors);
+                } catch (IOException e) {
+                    System.err.println("Помилка з'єднання навантажувального клієнта: " + e.getMessage());
+                }
+            }, "load-test-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.println("Навантажувальний тест: з'єднань " + connections + ", запитів " + latency.count()
+                + ", помилок " + errors.sum() + ", глибина конвеєра " + depth);
+        System.out.printf("Пропускна здатність: %.0f запитів/с%n", latency.count() / seconds);
+        System.out.printf("Затримка: p50 %.3f мс, p90 %.3f мс, p99 %.3f мс, p99.9 %.3f мс, макс %.3f мс%n",
+                latency.percentile(50) / 1e6, latency.percentile(90) / 1e6, latency.percentile(99) / 1e6,
+                latency.percentile(99.9) / 1e6, latency.max() / 1e6);
+    }
+
+    private static void drive(String host, int port, int requests, int depth, int count,
+                              LatencyHistogram latency, LongAdder errors) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            long[] sent = new long[requests];
+            int next = 0;
+            for (int received = 0; received < requests; received++) {
+                for (; next < requests && next - received < depth; next++) {
+                    if (next % 10 == 0) {
+                        out.writeInt(4 + 1 + 8);
+                        out.writeInt(next);
+                        out.writeByte(CommandServer.GENERATE);
+                        out.writeInt(count);
+                        out.writeInt(100);
+                    } else {
+                        out.writeInt(4 + 1);
+                        out.writeInt(next);
+                        out.writeByte(CommandServer.PROCESS);
+                    }
+                    sent[next] = System.nanoTime();
+                }
+                out.flush();
+
+                int length = in.readInt();
+                int id = in.readInt();
+                byte status = in.readByte();
+                in.skipNBytes(length - 5);
+                latency.record(System.nanoTime() - sent[id]);
+                if (status != CommandServer.STATUS_OK) {
+                    errors.increment();
+                }
+            }
         }
     }
 }
 
 /**
  * Клас для зберігання та обробки даних
+ * Незмінний знімок: числа копіюються один раз у примітивний масив,
+ * а далі читаються через індекси, курсори та представлення без копіювання
  */
 class Data {
-    private final List<Integer> numbers;
+    private final int[] numbers;
 
     /**
-     * Конструктор класу даних
-     * @param numbers початковий список чисел
+     * Конструктор класу Data: числа копіюються один раз у примітивний масив.
+     * @param numbers Список чисел для обробки
      */
     public Data(List<Integer> numbers) {
-        this.numbers = new ArrayList<>(numbers);
+        this.numbers = numbers.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Створення знімка з масиву без копіювання.
+     * Масив переходить у власність об'єкта і не повинен змінюватися після виклику.
+     * @param numbers Масив чисел
+     */
+    Data(int[] numbers) {
+        this.numbers = numbers;
     }
 
     /**
-     * Отримати копію списку чисел
-     * @return новий список з тими ж числами
+     * Отримання списку чисел лише для читання (представлення без копіювання).
+     * @return Незмінний список чисел
      */
     public List<Integer> getNumbers() {
-        return new ArrayList<>(numbers);
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) { return numbers[index]; }
+            @Override
+            public int size() { return numbers.length; }
+        };
+    }
+
+    /**
+     * Кількість чисел.
+     * @return Розмір набору даних
+     */
+    public int size() {
+        return numbers.length;
+    }
+
+    /**
+     * Число за індексом (без упакування).
+     * @param index Індекс числа
+     * @return Число
+     */
+    public int get(int index) {
+        return numbers[index];
+    }
+
+    /**
+     * Курсор для послідовного читання чисел з діапазону без копіювання.
+     * @param from Початковий індекс (включно)
+     * @param to Кінцевий індекс (не включно)
+     * @return Курсор по числах
+     */
+    public PrimitiveIterator.OfInt cursor(int from, int to) {
+        Objects.checkFromToIndex(from, to, numbers.length);
+        return new PrimitiveIterator.OfInt() {
+            private int position = from;
+            @Override
+            public boolean hasNext() { return position < to; }
+            @Override
+            public int nextInt() {
+                if (position >= to) throw new NoSuchElementException();
+                return numbers[position++];
+            }
+        };
+    }
+
+    /**
+     * Потік чисел без упакування (для обробки, у тому числі паралельної).
+     * @return Потік чисел
+     */
+    public IntStream stream() {
+        return Arrays.stream(numbers);
+    }
+
+    /**
+     * Копіювання діапазону чисел у буфер (для передачі мережею).
+     * @param from Початковий індекс (включно)
+     * @param to Кінцевий індекс (не включно)
+     * @param target Буфер призначення
+     */
+    void copyTo(int from, int to, IntBuffer target) {
+        target.put(numbers, from, to - from);
     }
 
     /**
@@ -340,7 +3366,126 @@ class Data {
      * @return сума чисел
      */
     public int getSum() {
-        return numbers.stream().mapToInt(Integer::intValue).sum();
+        int sum = 0;
+        for (int number : numbers) sum += number;
+        return sum;
+    }
+}
+
+/**
+ * Набір даних поза купою: числа зберігаються у прямих буферах (ByteBuffer.allocateDirect)
+ * блоками по BLOCK_SIZE чисел з індексами типу long - блок визначається старшими бітами
+ * індексу (index >>> BLOCK_SHIFT). Розмір не обмежений Integer.MAX_VALUE, а збирач сміття
+ * не сканує і не переміщує ці числа. Після close() буфери стають недосяжними, і пам'ять
+ * повертається системі під час найближчого збирання сміття.
+ * Паралельні команди працюють блоками по CHUNK_SIZE чисел; межі блоків буферів кратні CHUNK_SIZE.
+ * Виділення враховується в ліміті -XX:MaxDirectMemorySize (за замовчуванням дорівнює -Xmx).
+ */
+class OffHeapData implements AutoCloseable {
+    static final long CHUNK_SIZE = 1 << 20;
+    private static final int BLOCK_SHIFT = 28; // Блок - 2^28 чисел (1 ГБ), у межах int-адресації буфера
+    private static final long BLOCK_SIZE = 1L << BLOCK_SHIFT;
+    private static final long BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private volatile IntBuffer[] blocks; // null після close()
+    private final long size;
+
+    private OffHeapData(IntBuffer[] blocks, long size) {
+        this.blocks = blocks;
+        this.size = size;
+    }
+
+    /**
+     * Виділити пам'ять під набір даних (заповнений нулями)
+     * @param size кількість чисел
+     * @return новий набір даних; його потрібно закрити
+     */
+    public static OffHeapData allocate(long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Некоректна кількість чисел: " + size);
+        }
+        IntBuffer[] blocks = new IntBuffer[(int) ((size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT)];
+        for (int b = 0; b < blocks.length; b++) {
+            int length = (int) Math.min(BLOCK_SIZE, size - ((long) b << BLOCK_SHIFT));
+            blocks[b] = ByteBuffer.allocateDirect(length * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return new OffHeapData(blocks, size);
+    }
+
+    /**
+     * Кількість чисел
+     * @return розмір набору даних
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Число за індексом
+     * @param index індекс числа
+     * @return число
+     */
+    public int get(long index) {
+        return blocks()[(int) (index >>> BLOCK_SHIFT)].get((int) (index & BLOCK_MASK));
+    }
+
+    /**
+     * Записати число за індексом
+     * @param index індекс числа
+     * @param value число
+     */
+    public void set(long index, int value) {
+        blocks()[(int) (index >>> BLOCK_SHIFT)].put((int) (index & BLOCK_MASK), value);
+    }
+
+    /**
+     * Паралельний потік номерів блоків
+     * @return номери блоків від 0 до кількості блоків
+     */
+    public LongStream parallelChunks() {
+        return LongStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel();
+    }
+
+    /**
+     * Статистика одного блоку; лічильники оновлюються без умовних переходів
+     * @param chunk номер блоку
+     * @return статистика блоку
+     */
+    public PartialAggregate aggregateChunk(long chunk) {
+        long from = chunk * CHUNK_SIZE;
+        long to = Math.min(size, from + CHUNK_SIZE);
+        // Блок обробки цілком лежить в одному буфері, тож далі адресація лише через int
+        IntBuffer block = blocks()[(int) (from >>> BLOCK_SHIFT)];
+        int start = (int) (from & BLOCK_MASK);
+        int end = start + (int) (to - from);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long sum = 0;
+        long odds = 0;
+        long above = 0;
+        for (int i = start; i < end; i++) {
+            int value = block.get(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            odds += value & 1;
+            above += (50L - value) >>> 63;
+        }
+        return new PartialAggregate(to - from, min, max, sum, (to - from) - odds, above);
+    }
+
+    /**
+     * Звільнити буфери; після цього доступ до чисел неможливий
+     */
+    @Override
+    public void close() {
+        blocks = null;
+    }
+
+    private IntBuffer[] blocks() {
+        IntBuffer[] blocks = this.blocks;
+        if (blocks == null) throw new IllegalStateException("Набір даних поза купою вже закрито");
+        return blocks;
     }
 }
 
@@ -357,7 +3502,16 @@ class Calculator {
      * @param factory фабрика для створення інтерфейсу відображення
      */
     public Calculator(List<Integer> numbers, DisplayFactory factory) {
-        this.data = new Data(numbers);
+        this(new Data(numbers), factory);
+    }
+
+    /**
+     * Конструктор калькулятора з готового знімка даних (без копіювання)
+     * @param data знімок даних
+     * @param factory фабрика для створення інтерфейсу відображення
+     */
+    public Calculator(Data data, DisplayFactory factory) {
+        this.data = data;
         this.display = factory.createDisplay();
     }
 
@@ -382,6 +3536,7 @@ class AutoDataGenerator {
     private final int columns;
     private final int cellWidth;
     private final DisplayFactory displayFactory;
+    private Data data = new Data(new int[0]); // Знімок поточних чисел, оновлюється лише під час генерації
 
     /**
      * Конструктор генератора даних
@@ -405,10 +3560,19 @@ class AutoDataGenerator {
      * Створює і виконує команду генерації
      */
     public void generateAndDisplay() {
-        Command generateCommand = new GenerateAndDisplayCommand(
+        GenerateAndDisplayCommand generateCommand = new GenerateAndDisplayCommand(
                 numbers, count, bound, displayFactory, columns, cellWidth
         );
         generateCommand.execute();
+        data = generateCommand.getData();
+    }
+
+    /**
+     * Знімок поточних чисел без повторного копіювання списку
+     * @return знімок даних
+     */
+    public Data getData() {
+        return data;
     }
 }
 
@@ -416,6 +3580,12 @@ class AutoDataGenerator {
  * Головний клас програми
  */
 public class Main {
+    // Стан неінтерактивних операцій (run), що зберігається між операціями одного запуску
+    private static final List<Integer> jobNumbers = new ArrayList<>(); // Поточні числа
+    private static Data jobData = new Data(new int[0]); // Знімок jobNumbers, оновлюється після generate і append
+    private static OffHeapData offHeap; // Числа поза купою (storage=offheap)
+    private static BitmapIndex index; // Індекс поточних чисел (операції index, append, query)
+
     /**
      * Точка входу в програму
      * @param args аргументи командного рядка
@@ -465,7 +3635,7 @@ public class Main {
                         }
 
                         // Створення та додавання команди паралельної обробки до черги
-                        ParallelProcessCommand processCommand = new ParallelProcessCommand(numbers);
+                        ParallelProcessCommand processCommand = new ParallelProcessCommand(autoGenerator.getData());
                         commandManager.executeCommand(processCommand);
                     }
                     case 3 -> {
@@ -480,8 +3650,126 @@ public class Main {
                 // Обробка некоректного вводу
                 System.out.println("Помилка вводу. Введіть коректне значення.");
                 scanner.nextLine();
+            } catch (IllegalArgumentException e) {
+                // Некоректні параметри таблиці (наприклад, ширина комірки менша за 3)
+                System.out.println("Помилка: " + e.getMessage());
             }
         }
         scanner.close();
     }
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, append, index, query, process, order, cluster, worker, serve,
+     *                  loadtest, render)
+     * @param options параметри у вигляді ключ=значення
+     * @throws IOException якщо не вдалося відкрити порт сервера
+     * @throws InterruptedException якщо очікування перервано
+     */
+    static void run(String operation, Map<String, String> options) throws IOException, InterruptedException {
+        switch (operation) {
+            case "generate" -> {
+                if ("offheap".equals(options.get("storage"))) {
+                    // Індекси long: count може перевищувати Integer.MAX_VALUE; попередній набір звільняється
+                    if (offHeap != null) offHeap.close();
+                    offHeap = OffHeapData.allocate(longOption(options, "count", 15));
+                    new OffHeapGenerateCommand(offHeap, intOption(options, "bound", 100),
+                            intOption(options, "seed", 42)).execute();
+                    return;
+                }
+                int count = intOption(options, "count", 15);
+                int bound = intOption(options, "bound", 100);
+                Random random = new Random(intOption(options, "seed", 42));
+                jobNumbers.clear();
+                for (int i = 0; i < count; i++) {
+                    jobNumbers.add(random.nextInt(bound));
+                }
+                jobData = new Data(jobNumbers);
+                index = null;
+                System.out.println("Згенеровано чисел: " + count);
+            }
+            case "append" -> {
+                // Дописування до поточних чисел; побудований індекс оновлюється
+                int count = intOption(options, "count", 15);
+                int bound = intOption(options, "bound", 100);
+                Random random = new Random(intOption(options, "seed", 42));
+                for (int i = 0; i < count; i++) {
+                    jobNumbers.add(random.nextInt(bound));
+                }
+                jobData = new Data(jobNumbers);
+                if (index != null) {
+                    long start = System.nanoTime();
+                    index.append(jobData);
+                    System.out.printf("Індекс оновлено за %.3f мс%n", (System.nanoTime() - start) / 1e6);
+                }
+                System.out.println("Дописано чисел: " + count + ", всього " + jobNumbers.size());
+            }
+            case "index" -> {
+                long start = System.nanoTime();
+                index = BitmapIndex.build(jobData);
+                System.out.printf("Індекс побудовано за %.3f мс%n", (System.nanoTime() - start) / 1e6);
+            }
+            case "query" -> {
+                // Запити кількості до індексу (будується, якщо ще немає); filter=... - додатковий запит
+                if (index == null) index = BitmapIndex.build(jobData);
+                String filter = options.get("filter");
+                new IndexQueryCommand(index, filter == null ? null : Filter.parse(filter)).execute();
+            }
+            case "process" -> {
+                if (!"offheap".equals(options.get("storage"))) {
+                    // filter=... додає вибірку за виразом, наприклад "mod(3, 0) and not range(0, 10)"
+                    String filter = options.get("filter");
+                    new ParallelProcessCommand(jobData, filter == null ? null : Filter.parse(filter)).execute();
+                } else if (offHeap == null) {
+                    System.out.println("Немає чисел для обробки. Спочатку згенеруйте дані.");
+                } else {
+                    new OffHeapProcessCommand(offHeap).execute();
+                }
+            }
+            case "order" -> new OrderStatisticsCommand(jobData, intOption(options, "k", 10)).execute();
+            case "cluster" -> {
+                // Обробка в workers робочих JVM частинами по partition чисел; spawn=false - чекати
+                // процеси, запущені вручну операцією worker, на порту port
+                new ClusterProcessCommand(jobData, intOption(options, "workers", 2),
+                        intOption(options, "partition", 1 << 20), intOption(options, "port", 0),
+                        !"false".equals(options.get("spawn"))).execute();
+            }
+            case "worker" -> {
+                String coordinator = options.getOrDefault("coordinator", "127.0.0.1:7070");
+                int colon = coordinator.lastIndexOf(':');
+                ClusterWorker.serve(coordinator.substring(0, colon), Integer.parseInt(coordinator.substring(colon + 1)));
+            }
+            case "serve" -> {
+                // Сервер команд на host:port протягом seconds секунд (0 - до завершення процесу)
+                int seconds = intOption(options, "seconds", 0);
+                try (CommandServer server = new CommandServer(options.getOrDefault("host", "127.0.0.1"),
+                        intOption(options, "port", 7171), CommandManager.getInstance())) {
+                    System.out.println("Сервер команд слухає порт " + server.getPort());
+                    Thread.sleep(seconds == 0 ? Long.MAX_VALUE : seconds * 1000L);
+                } finally {
+                    CommandManager.getInstance().shutdown();
+                }
+            }
+            case "loadtest" -> {
+                // Без port сервер запускається в цьому ж процесі на вільному порту loopback
+                int connections = intOption(options, "connections", 4);
+                int requests = intOption(options, "requests", 10_000);
+                int depth = intOption(options, "depth", 16);
+                int count = intOption(options, "count", 1000);
+                String host = options.getOrDefault("host", "127.0.0.1");
+                if (options.containsKey("port")) {
+                    LoadTestClient.run(host, intOption(options, "port", 7171), connections, requests, depth, count);
+                } else {
+                    try (CommandServer server = new CommandServer(host, 0, CommandManager.getInstance())) {
+                        LoadTestClient.run(host, server.getPort(), connections, requests, depth, count);
+                    } finally {
+                        CommandManager.getInstance().shutdown();
+                    }
+                }
+            }
+            case "render" -> new Calculator(jobData, new ConsoleResultDisplayFactory())
+                    .displayCustomResults(intOption(options, "columns", 5), intOption(options, "cellWidth", 6));
+            default -> throw new IllegalArgumentException("Невідома операція: " + operation);
+        }
+    }
 }
\ No newline at end of file
@@ -3,13 +3,51 @@ package task7;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.ToLongFunction;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.swing.*;
+import javax.swing.Timer;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.border.*;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import static task1.JobOptions.intOption;
 
 interface Command {
     void execute();
@@ -17,270 +55,2454 @@ interface Command {
 
 class CommandManager {
     private static CommandManager instance;
-    private final BlockingQueue<Command> commandQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<QueuedCommand> commandQueue = new LinkedBlockingQueue<>();
     private final ExecutorService executor;
+    private final CommandMetrics metrics = new CommandMetrics("task7", this::getQueueDepth);
+    private volatile Command currentCommand; // Команда, що виконується зараз
+
+    // Команда разом із моментом постановки в чергу, щоб виміряти час очікування
+    private record QueuedCommand(Command command, long enqueuedNanos) {}
 
     private CommandManager() {
         executor = Executors.newFixedThreadPool(2);
+        metrics.start();
+
+        executor.submit(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    QueuedCommand queued = commandQueue.take();
+                    String name = CommandMetrics.nameOf(queued.command());
+                    long started = System.nanoTime();
+                    currentCommand = queued.command();
+                    FlightEvents.dequeued(queued.command(), started - queued.enqueuedNanos());
+                    CommandExecutedEvent event = FlightEvents.beginExecution();
+                    boolean success = false;
+                    try {
+                        queued.command().execute();
+                        metrics.finished(name, started - queued.enqueuedNanos(), System.nanoTime() - started, true);
+                        success = true;
+                    } catch (RuntimeException e) {
+                        // Помилка однієї команди не зупиняє обробку черги
+                        metrics.finished(name, started - queued.enqueuedNanos(), System.nanoTime() - started, false);
+                        System.err.println("Помилка виконання команди " + name + ": " + e.getMessage());
+                    } finally {
+                        currentCommand = null;
+                        FlightEvents.endExecution(event, queued.command(), success);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        });
+    }
+
+    public static synchronized CommandManager getInstance() {
+        if (instance == null || instance.executor.isShutdown()) {
+            instance = new CommandManager();
+        }
+        return instance;
+    }
+
+    public void executeCommand(Command command) {
+        metrics.submitted(CommandMetrics.nameOf(command));
+        try {
+            commandQueue.put(new QueuedCommand(command, System.nanoTime()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Переривання при додаванні команди до черги: " + e.getMessage());
+            return;
+        }
+        FlightEvents.enqueued(command, commandQueue.size());
+    }
+
+    public int getQueueDepth() {
+        return commandQueue.size();
+    }
+
+    public Command getCurrentCommand() {
+        return currentCommand;
+    }
+
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void shutdown() {
+        metrics.stop();
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Пул потоків не завершив роботу коректно.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+// Гістограма тривалостей з логарифмічними кошиками: 8 кошиків на кожен степінь двійки
+// (похибка до 12.5%). Запис - один атомарний інкремент без алокацій, тож її можна
+// не вимикати в робочому режимі
+class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+        return total;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    // Верхня межа кошика, що містить заданий перцентиль (0..100); 0, якщо записів немає
+    public long percentile(double percent) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percent / 100));
+        for (int i = 0; i < snapshot.length; i++) {
+            rank -= snapshot[i];
+            if (rank <= 0) return Math.min(lowerBound(i + 1) - 1, max.get());
+        }
+        return max.get();
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + 2;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 3);
+    }
+}
+
+// Метрики менеджера команд для кожного типу команди: лічильники поданих, виконаних і невдалих
+// команд (LongAdder, без спільної точки конкуренції) та гістограми часу очікування в черзі
+// і часу виконання. Публікуються як JMX-бін "task7:type=CommandManager"; якщо задано
+// -DcommandMetrics.dumpSeconds=N, зведення кожні N секунд виводиться у System.err
+class CommandMetrics implements CommandMetricsMXBean {
+    private static final String DUMP_PROPERTY = "commandMetrics.dumpSeconds";
+
+    private final ConcurrentHashMap<String, CommandStats> stats = new ConcurrentHashMap<>();
+    private final String domain;
+    private final IntSupplier queueDepth;
+    private ScheduledExecutorService dumper;
+
+    static final class CommandStats {
+        final LongAdder submitted = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder runNanos = new LongAdder();
+        final LatencyHistogram wait = new LatencyHistogram();
+        final LatencyHistogram run = new LatencyHistogram();
+    }
+
+    CommandMetrics(String domain, IntSupplier queueDepth) {
+        this.domain = domain;
+        this.queueDepth = queueDepth;
+    }
+
+    public void start() {
+        // Запуск платформного MBeanServer займає сотні мілісекунд, тому реєстрація йде у фоновому потоці
+        Thread registration = new Thread(this::register, "command-metrics-jmx");
+        registration.setDaemon(true);
+        registration.start();
+        long seconds = Long.getLong(DUMP_PROPERTY, 0);
+        if (seconds > 0) {
+            dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "command-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.println(getSummary()), seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(domain + ":type=CommandManager");
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Помилка реєстрації JMX-біна метрик: " + e.getMessage());
+        }
+    }
+
+    public void stop() {
+        if (dumper != null) dumper.shutdownNow();
+        try {
+            ObjectName name = new ObjectName(domain + ":type=CommandManager");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException e) {
+            System.err.println("Помилка зняття JMX-біна метрик: " + e.getMessage());
+        }
+    }
+
+    public static String nameOf(Command command) {
+        Class<?> type = command.getClass();
+        return type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
+    }
+
+    public void submitted(String name) {
+        statsFor(name).submitted.increment();
+    }
+
+    public void finished(String name, long waitNanos, long runNanos, boolean success) {
+        CommandStats commandStats = statsFor(name);
+        (success ? commandStats.completed : commandStats.failed).increment();
+        commandStats.runNanos.add(runNanos);
+        commandStats.wait.record(waitNanos);
+        commandStats.run.record(runNanos);
+    }
+
+    private CommandStats statsFor(String name) {
+        CommandStats commandStats = stats.get(name);
+        return commandStats != null ? commandStats : stats.computeIfAbsent(name, key -> new CommandStats());
+    }
+
+    // Статистика за назвою типу команди, впорядкована за назвою
+    public Map<String, CommandStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return sum(commandStats -> commandStats.submitted.sum());
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return sum(commandStats -> commandStats.completed.sum());
+    }
+
+    @Override
+    public long getFailedCount() {
+        return sum(commandStats -> commandStats.failed.sum());
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getCompletedByCommand() {
+        return byCommand(commandStats -> commandStats.completed.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailedByCommand() {
+        return byCommand(commandStats -> commandStats.failed.sum());
+    }
+
+    @Override
+    public Map<String, Double> getTotalRunMillisByCommand() {
+        return byCommand(commandStats -> commandStats.runNanos.sum() / 1e6);
+    }
+
+    @Override
+    public Map<String, Double> getP99WaitMillisByCommand() {
+        return byCommand(commandStats -> commandStats.wait.percentile(99) / 1e6);
+    }
+
+    @Override
+    public Map<String, Double> getP99RunMillisByCommand() {
+        return byCommand(commandStats -> commandStats.run.percentile(99) / 1e6);
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder("Команди: подано ").append(getSubmittedCount())
+                .append(", виконано ").append(getCompletedCount())
+                .append(", з помилкою ").append(getFailedCount())
+                .append(", у черзі ").append(getQueueDepth());
+        getStats().forEach((name, commandStats) -> sb.append("\n  ").append(name)
+                .append(": виконано ").append(commandStats.completed.sum())
+                .append(", помилок ").append(commandStats.failed.sum())
+                .append("; очікування p50 ").append(millis(commandStats.wait.percentile(50)))
+                .append(", p99 ").append(millis(commandStats.wait.percentile(99)))
+                .append("; виконання p50 ").append(millis(commandStats.run.percentile(50)))
+                .append(", p99 ").append(millis(commandStats.run.percentile(99)))
+                .append(", макс ").append(millis(commandStats.run.max()))
+                .append(", сумарно ").append(millis(commandStats.runNanos.sum())));
+        return sb.toString();
+    }
+
+    private long sum(ToLongFunction<CommandStats> counter) {
+        long total = 0;
+        for (CommandStats commandStats : stats.values()) total += counter.applyAsLong(commandStats);
+        return total;
+    }
+
+    private <T> Map<String, T> byCommand(Function<CommandStats, T> value) {
+        Map<String, T> result = new TreeMap<>();
+        stats.forEach((name, commandStats) -> result.put(name, value.apply(commandStats)));
+        return result;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f мс", nanos / 1e6);
+    }
+}
+
+// Події Java Flight Recorder для черги команд і фаз роботи. Вимкнені за замовчуванням і вмикаються
+// профілем task7.jfc (-XX:StartFlightRecording:settings=default,settings=src/task7/task7.jfc).
+// Події записуються лише через FlightEvents
+@Name("task7.CommandEnqueued")
+@Label("Команду додано до черги")
+@Category({"Task7", "Команди"})
+@Enabled(false)
+@StackTrace(false)
+class CommandEnqueuedEvent extends Event {
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Глибина черги")
+    int queueDepth;
+}
+
+@Name("task7.CommandDequeued")
+@Label("Команду взято з черги")
+@Category({"Task7", "Команди"})
+@Enabled(false)
+@StackTrace(false)
+class CommandDequeuedEvent extends Event {
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Час очікування")
+    @Timespan
+    long waitTime;
+}
+
+// Тривалість події дорівнює часу execute()
+@Name("task7.CommandExecuted")
+@Label("Виконання команди")
+@Category({"Task7", "Команди"})
+@Enabled(false)
+@StackTrace(false)
+class CommandExecutedEvent extends Event {
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Успішно")
+    boolean success;
+}
+
+// Одна фаза роботи з розміром набору даних. Для файлового введення-виведення
+// типом команди є клас, що читає або пише файл
+@Name("task7.Phase")
+@Label("Фаза обробки")
+@Category({"Task7", "Фази"})
+@Enabled(false)
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Фаза")
+    String phase;
+
+    @Label("Тип команди")
+    Class<?> commandType;
+
+    @Label("Розмір набору даних")
+    long datasetSize;
+}
+
+// Точка запису подій JFR. Класи подій не використовуються, доки JFR не ініціалізовано (запис,
+// запущений прапорцем -XX:StartFlightRecording або jcmd JFR.start): перше звернення до класу події
+// реєструє його і завантажує підсистему JFR, що коштує сотні мілісекунд. Без запису виклики
+// зводяться до читання одного прапорця, а фази повертають null
+final class FlightEvents {
+    static final String GENERATE = "generate";
+    static final String PROCESS = "process";
+    static final String RENDER = "render";
+    static final String FILE_IO = "file-io";
+
+    private FlightEvents() {}
+
+    static void enqueued(Command command, int queueDepth) {
+        if (!FlightRecorder.isInitialized()) return;
+        CommandEnqueuedEvent event = new CommandEnqueuedEvent();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass();
+            event.queueDepth = queueDepth;
+            event.commit();
+        }
+    }
+
+    static void dequeued(Command command, long waitNanos) {
+        if (!FlightRecorder.isInitialized()) return;
+        CommandDequeuedEvent event = new CommandDequeuedEvent();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass();
+            event.waitTime = waitNanos;
+            event.commit();
+        }
+    }
+
+    static CommandExecutedEvent beginExecution() {
+        if (!FlightRecorder.isInitialized()) return null;
+        CommandExecutedEvent event = new CommandExecutedEvent();
+        event.begin();
+        return event;
+    }
+
+    static void endExecution(CommandExecutedEvent event, Command command, boolean success) {
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass();
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    // Поля фази заповнюються лише тоді, коли подію ввімкнено
+    static PhaseEvent beginPhase(String phase, Class<?> commandType, long datasetSize) {
+        if (!FlightRecorder.isInitialized()) return null;
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.commandType = commandType;
+            event.datasetSize = datasetSize;
+            event.begin();
+        }
+        return event;
+    }
+
+    static void endPhase(PhaseEvent event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+
+    // Завершення фази, розмір якої відомий лише в кінці (прочитані з файлу числа)
+    static void endPhase(PhaseEvent event, long datasetSize) {
+        if (event != null) {
+            event.datasetSize = datasetSize;
+            event.commit();
+        }
+    }
+}
+
+// Клас даних: незмінний знімок чисел у примітивному масиві, доступ без копіювання.
+// Знімок може охоплювати лише початок масиву: живий потік дописує числа після нього,
+// не змінюючи вже видимої частини
+class Data {
+    private final int[] numbers;
+    private final int length;
+
+    public Data(List<Integer> numbers) {
+        this(numbers.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // Масив переходить у власність об'єкта і не повинен змінюватися після виклику
+    Data(int[] numbers) {
+        this(numbers, numbers.length);
+    }
+
+    // Знімок перших length чисел; ці елементи масиву не повинні змінюватися після виклику
+    Data(int[] numbers, int length) {
+        Objects.checkFromToIndex(0, length, numbers.length);
+        this.numbers = numbers;
+        this.length = length;
+    }
+
+    // Представлення лише для читання, без копіювання
+    public List<Integer> getNumbers() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) { return Data.this.get(index); }
+            @Override
+            public int size() { return length; }
+        };
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public int get(int index) {
+        return numbers[Objects.checkIndex(index, length)];
+    }
+
+    // Курсор для послідовного читання діапазону [from, to)
+    public PrimitiveIterator.OfInt cursor(int from, int to) {
+        Objects.checkFromToIndex(from, to, length);
+        return new PrimitiveIterator.OfInt() {
+            private int position = from;
+            @Override
+            public boolean hasNext() { return position < to; }
+            @Override
+            public int nextInt() {
+                if (position >= to) throw new NoSuchElementException();
+                return numbers[position++];
+            }
+        };
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(numbers, 0, length);
+    }
+
+    // Копіювання діапазону [from, to) у target, починаючи з позиції 0
+    public void copyTo(int from, int to, int[] target) {
+        Objects.checkFromToIndex(from, to, length);
+        System.arraycopy(numbers, from, target, 0, to - from);
+    }
+
+    public int getSum() {
+        int sum = 0;
+        for (int i = 0; i < length; i++) sum += numbers[i];
+        return sum;
+    }
+}
+
+class CustomBorderFactory {
+    public static Border createRoundedBorder(Color color, int thickness, int radius) {
+        return new RoundedBorder(color, thickness, radius);
+    }
+}
+
+// Додаємо клас для красивих рамок
+class RoundedBorder implements Border {
+    private Color color;
+    private int thickness;
+    private int radius;
+
+    RoundedBorder(Color color, int thickness, int radius) {
+        this.color = color;
+        this.thickness = thickness;
+        this.radius = radius;
+    }
+
+    @Override
+    public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setColor(color);
+        g2d.setStroke(new BasicStroke(thickness));
+        g2d.drawRoundRect(x + thickness/2, y + thickness/2,
+                width - thickness, height - thickness,
+                radius, radius);
+        g2d.dispose();
+    }
+
+    @Override
+    public Insets getBorderInsets(Component c) {
+        return new Insets(thickness + 2, thickness + 2, thickness + 2, thickness + 2);
+    }
+
+    @Override
+    public boolean isBorderOpaque() {
+        return false;
+    }
+}
+
+// Модель таблиці поверх знімка Data: клітинки обчислюються з індексу на льоту,
+// тому модель не зберігає рядків і не залежить від кількості чисел
+class NumberTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private transient Data data = new Data(new int[0]);
+    private int columns;
+    private String[] columnNames = new String[0];
+
+    // Заміна даних одною подією; викликається лише з потоку EDT
+    public void setData(Data data, int columns) {
+        this.data = data;
+        if (columns == this.columns) {
+            fireTableDataChanged();
+            return;
+        }
+        this.columns = columns;
+        columnNames = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            columnNames[i] = "🔢 " + (i + 1);
+        }
+        fireTableStructureChanged();
+    }
+
+    public Data getData() {
+        return data;
+    }
+
+    // Дописування: новий знімок продовжує поточний. Оновлюється лише неповний останній рядок
+    // і додаються нові рядки - не більше двох подій на пакет; викликається лише з потоку EDT
+    public void append(Data data) {
+        int oldRows = getRowCount();
+        boolean partialRow = this.data.size() % columns != 0;
+        this.data = data;
+        int newRows = getRowCount();
+        if (partialRow) fireTableRowsUpdated(oldRows - 1, oldRows - 1);
+        if (newRows > oldRows) fireTableRowsInserted(oldRows, newRows - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return columns == 0 ? 0 : (data.size() + columns - 1) / columns;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return Integer.class;
+    }
+
+    // Порожня клітинка останнього рядка повертає null
+    @Override
+    public Object getValueAt(int row, int column) {
+        int index = row * columns + column;
+        return index < data.size() ? data.get(index) : null;
+    }
+}
+
+// Єдиний рендерер для всіх клітинок: кольори створюються один раз,
+// а число береться з моделі без розбору тексту
+class CustomPinkRenderer extends DefaultTableCellRenderer {
+    private static final Color EVEN_COLOR = new Color(255, 230, 240); // Світло-рожевий для парних
+    private static final Color ODD_COLOR = new Color(255, 200, 220); // Темніший рожевий для непарних
+    private static final String[] SMALL_NUMBERS = new String[1024]; // Готовий текст для невеликих чисел
+
+    static {
+        for (int i = 0; i < SMALL_NUMBERS.length; i++) {
+            SMALL_NUMBERS[i] = Integer.toString(i);
+        }
+    }
+
+    CustomPinkRenderer() {
+        setHorizontalAlignment(JLabel.CENTER);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value,
+                                                   boolean isSelected, boolean hasFocus,
+                                                   int row, int column) {
+        Component c = super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+
+        if (value instanceof Integer number) {
+            int num = number;
+            setText(num >= 0 && num < SMALL_NUMBERS.length ? SMALL_NUMBERS[num] : Integer.toString(num));
+            c.setBackground(num % 2 == 0 ? EVEN_COLOR : ODD_COLOR);
+        } else {
+            c.setBackground(EVEN_COLOR);
+        }
+        return c;
+    }
+}
+
+// Теплова карта набору: числа розкладаються рядками у квадратну сітку, і кожен піксель
+// показує блок сітки (мінімум, максимум або середнє блоку). Масштаб - 2^level чисел
+// на піксель по кожній осі. Зображення складається з плиток, які кешуються, тому зсув
+// і масштабування малюють лише нові плитки, а відсутні плитки заповнюються паралельно
+// у фоновому SwingWorker, після чого панель перемальовується.
+class HeatmapPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int TILE_SIZE = 128; // Розмір плитки у пікселях
+    private static final int MAX_TILES = 256; // Ліміт кешу плиток (по 64 КБ кожна)
+    private static final int MIN_LEVEL = -5; // Найбільше збільшення: 32 пікселі на число
+    private static final int[] PALETTE = createPalette();
+
+    enum Mode {
+        MEAN("Середнє"), MIN("Мінімум"), MAX("Максимум");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private record TileKey(int level, int tileX, int tileY) {}
+
+    // Незмінний знімок стану панелі, за яким плитки малюються поза EDT
+    private record TileSource(Data data, int gridWidth, int gridHeight, int minValue, int maxValue, Mode mode) {
+        BufferedImage render(TileKey key) {
+            BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            long range = (long) maxValue - minValue;
+            int[] bucket = new int[3]; // Мінімум, максимум і середнє блоку
+
+            for (int py = 0; py < TILE_SIZE; py++) {
+                int y = key.tileY() * TILE_SIZE + py;
+                if (gridStart(y, key.level()) >= gridHeight) break;
+                for (int px = 0; px < TILE_SIZE; px++) {
+                    int x = key.tileX() * TILE_SIZE + px;
+                    if (gridStart(x, key.level()) >= gridWidth) break;
+                    if (!aggregate(x, y, key.level(), bucket)) continue;
+                    int value = switch (mode) {
+                        case MEAN -> bucket[2];
+                        case MIN -> bucket[0];
+                        case MAX -> bucket[1];
+                    };
+                    int shade = range == 0 ? 0 : (int) (((long) value - minValue) * (PALETTE.length - 1) / range);
+                    pixels[py * TILE_SIZE + px] = PALETTE[shade];
+                }
+            }
+            return image;
+        }
+
+        // Мінімум, максимум і середнє чисел блоку пікселя (x, y); false, якщо блок порожній
+        boolean aggregate(int x, int y, int level, int[] bucket) {
+            long x0 = gridStart(x, level);
+            long y0 = gridStart(y, level);
+            long x1 = Math.min(gridWidth, Math.max(x0 + 1, gridStart(x + 1, level)));
+            long y1 = Math.min(gridHeight, Math.max(y0 + 1, gridStart(y + 1, level)));
+            int size = data.size();
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            long sum = 0;
+            int count = 0;
+            for (long gy = y0; gy < y1; gy++) {
+                long rowStart = gy * gridWidth;
+                int end = (int) Math.min(size, rowStart + x1);
+                for (int index = (int) (rowStart + x0); index < end; index++) {
+                    int value = data.get(index);
+                    if (value < min) min = value;
+                    if (value > max) max = value;
+                    sum += value;
+                    count++;
+                }
+            }
+            if (count == 0) return false;
+            bucket[0] = min;
+            bucket[1] = max;
+            bucket[2] = (int) Math.floorDiv(sum, count);
+            return true;
+        }
+    }
+
+    // Кеш плиток у порядку доступу; найдавніше показані плитки витісняються
+    private final transient Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+    private final transient Set<TileKey> pending = new HashSet<>(); // Плитки, які зараз малюються у фоні
+    private int generation; // Зростає з кожною зміною даних чи режиму; застарілі плитки відкидаються
+    private transient Data data = new Data(new int[0]);
+    private int gridWidth;
+    private int gridHeight;
+    private int minValue;
+    private int maxValue;
+    private Mode mode = Mode.MEAN;
+    private int level;
+    private int originX; // Зсув видимої області у пікселях поточного масштабу
+    private int originY;
+    private transient Point dragStart;
+
+    HeatmapPanel() {
+        setBackground(new Color(255, 230, 240));
+        setToolTipText(""); // Підказка обчислюється для пікселя під курсором
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                originX -= e.getX() - dragStart.x;
+                originY -= e.getY() - dragStart.y;
+                dragStart = e.getPoint();
+                repaint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getWheelRotation() > 0 ? 1 : -1, e.getPoint());
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    fitToView();
+                    repaint();
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    // Заміна набору; викликається в EDT
+    public void setData(Data data) {
+        this.data = data;
+        gridWidth = (int) Math.ceil(Math.sqrt(data.size()));
+        gridHeight = gridWidth == 0 ? 0 : (data.size() + gridWidth - 1) / gridWidth;
+        IntSummaryStatistics stats = data.stream().parallel().summaryStatistics();
+        minValue = stats.getMin();
+        maxValue = stats.getMax();
+        invalidateTiles();
+        fitToView();
+        repaint();
+    }
+
+    // Дописування в кінець набору; викликається в EDT. Сітка зберігає ширину, тому
+    // перемальовуються лише плитки з новими рядками (або всі, якщо змінився діапазон значень).
+    // Коли набір виростає вчетверо, сітка розкладається заново
+    public void appendData(Data data) {
+        int from = this.data.size();
+        if (data == this.data) return;
+        if (from == 0 || data.size() < from || data.size() > 4L * gridWidth * gridWidth) {
+            setData(data);
+            return;
+        }
+        this.data = data;
+        gridHeight = (data.size() + gridWidth - 1) / gridWidth;
+        int min = minValue;
+        int max = maxValue;
+        for (int i = from; i < data.size(); i++) {
+            int value = data.get(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (min != minValue || max != maxValue) {
+            minValue = min;
+            maxValue = max;
+            tiles.clear();
+        } else {
+            int firstRow = from / gridWidth;
+            tiles.keySet().removeIf(key -> gridStart((key.tileY() + 1) * TILE_SIZE, key.level()) > firstRow);
+        }
+        pending.clear();
+        generation++;
+        repaint();
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        invalidateTiles();
+        repaint();
+    }
+
+    private void invalidateTiles() {
+        tiles.clear();
+        pending.clear();
+        generation++;
+    }
+
+    // Найменший масштаб, за якого вся сітка вміщується у панель, з центруванням
+    private void fitToView() {
+        int width = getWidth() > 0 ? getWidth() : 400;
+        int height = getHeight() > 0 ? getHeight() : 200;
+        level = MIN_LEVEL;
+        while (extent(gridWidth, level) > width || extent(gridHeight, level) > height) {
+            level++;
+        }
+        originX = (extent(gridWidth, level) - width) / 2;
+        originY = (extent(gridHeight, level) - height) / 2;
+    }
+
+    // Масштабування відносно точки at: число під курсором лишається на місці
+    private void zoom(int delta, Point at) {
+        int newLevel = Math.max(MIN_LEVEL, level + delta);
+        if (newLevel == level || (delta > 0 && extent(gridWidth, level) <= getWidth()
+                && extent(gridHeight, level) <= getHeight())) {
+            return;
+        }
+        double factor = Math.scalb(1.0, level - newLevel);
+        originX = (int) Math.round((originX + at.x) * factor) - at.x;
+        originY = (int) Math.round((originY + at.y) * factor) - at.y;
+        level = newLevel;
+        repaint();
+    }
+
+    // Розмір сітки у пікселях заданого масштабу
+    private static int extent(int cells, int level) {
+        return level >= 0 ? (int) ((cells + (1L << level) - 1) >> level) : cells << -level;
+    }
+
+    // Перша клітинка сітки, що потрапляє у піксель
+    private static long gridStart(int pixel, int level) {
+        return level >= 0 ? (long) pixel << level : pixel >> -level;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (data.size() == 0) return;
+
+        int fromX = Math.max(0, Math.floorDiv(originX, TILE_SIZE));
+        int fromY = Math.max(0, Math.floorDiv(originY, TILE_SIZE));
+        int toX = Math.min((extent(gridWidth, level) - 1) / TILE_SIZE, Math.floorDiv(originX + getWidth() - 1, TILE_SIZE));
+        int toY = Math.min((extent(gridHeight, level) - 1) / TILE_SIZE, Math.floorDiv(originY + getHeight() - 1, TILE_SIZE));
+
+        List<TileKey> missing = new ArrayList<>();
+        for (int tileY = fromY; tileY <= toY; tileY++) {
+            for (int tileX = fromX; tileX <= toX; tileX++) {
+                TileKey key = new TileKey(level, tileX, tileY);
+                BufferedImage tile = tiles.get(key);
+                if (tile != null) {
+                    g.drawImage(tile, tileX * TILE_SIZE - originX, tileY * TILE_SIZE - originY, null);
+                } else if (pending.add(key)) {
+                    missing.add(key);
+                }
+            }
+        }
+        if (!missing.isEmpty()) renderLater(missing);
+    }
+
+    // Відсутні плитки заповнюються у фоні, кожна у власний буфер пікселів паралельно з іншими;
+    // після завершення вони потрапляють у кеш, якщо дані й режим за цей час не змінилися
+    private void renderLater(List<TileKey> keys) {
+        TileSource source = new TileSource(data, gridWidth, gridHeight, minValue, maxValue, mode);
+        int expected = generation;
+        new SwingWorker<Map<TileKey, BufferedImage>, Void>() {
+            @Override
+            protected Map<TileKey, BufferedImage> doInBackground() {
+                return keys.parallelStream().collect(Collectors.toMap(key -> key, source::render));
+            }
+
+            @Override
+            protected void done() {
+                if (expected != generation) return;
+                keys.forEach(pending::remove);
+                try {
+                    tiles.putAll(get());
+                    repaint();
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Помилка побудови плиток теплової карти: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int x = originX + e.getX();
+        int y = originY + e.getY();
+        int[] bucket = new int[3];
+        TileSource source = new TileSource(data, gridWidth, gridHeight, minValue, maxValue, mode);
+        if (data.size() == 0 || x < 0 || y < 0 || !source.aggregate(x, y, level, bucket)) return null;
+        long first = gridStart(y, level) * gridWidth + gridStart(x, level);
+        return "Від №" + (first + 1) + ": мін " + bucket[0] + ", макс " + bucket[1] + ", середнє " + bucket[2];
+    }
+
+    // Палітра від світло-рожевого до темно-фіолетового
+    private static int[] createPalette() {
+        Color[] stops = {new Color(255, 240, 245), new Color(255, 105, 180),
+                new Color(199, 21, 133), new Color(75, 0, 60)};
+        int[] palette = new int[256];
+        for (int i = 0; i < palette.length; i++) {
+            double t = i * (stops.length - 1) / (double) (palette.length - 1);
+            int k = Math.min((int) t, stops.length - 2);
+            double f = t - k;
+            int r = (int) Math.round(stops[k].getRed() + (stops[k + 1].getRed() - stops[k].getRed()) * f);
+            int g = (int) Math.round(stops[k].getGreen() + (stops[k + 1].getGreen() - stops[k].getGreen()) * f);
+            int b = (int) Math.round(stops[k].getBlue() + (stops[k + 1].getBlue() - stops[k].getBlue()) * f);
+            palette[i] = 0xFF000000 | r << 16 | g << 8 | b;
+        }
+        return palette;
+    }
+}
+
+// Генерація виконується у потоці команд, а таблиця і текст оновлюються в EDT одним кроком
+class GenerateAndDisplayUICommand implements Command {
+    private final int count;
+    private final int bound;
+    private final NumberTableModel tableModel;
+    private final JTextArea resultArea;
+    private final int columns;
+
+    public GenerateAndDisplayUICommand(int count, int bound, NumberTableModel tableModel,
+                                       JTextArea resultArea, int columns) {
+        this.count = count;
+        this.bound = bound;
+        this.tableModel = tableModel;
+        this.resultArea = resultArea;
+        this.columns = columns;
+    }
+
+    @Override
+    public void execute() {
+        PhaseEvent generatePhase = FlightEvents.beginPhase(FlightEvents.GENERATE, getClass(), count);
+        Random random = new Random();
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(bound);
+        }
+        Data data = new Data(values);
+        FlightEvents.endPhase(generatePhase);
+
+        SwingUtilities.invokeLater(() -> {
+            PhaseEvent renderPhase = FlightEvents.beginPhase(FlightEvents.RENDER, getClass(), data.size());
+            tableModel.setData(data, columns);
+            resultArea.setText("✨ Згенеровані нові числа! ✨\n" +
+                    "Всього: " + data.size() + " чисел від 0 до " + bound);
+            FlightEvents.endPhase(renderPhase);
+        });
+    }
+}
+
+// Фільтр чисел: діапазон, остача від ділення, рівність та їх комбінації AND/OR/NOT.
+// Обчислюється блоками по 64 числа: кожен лист будує 64-бітну маску без умовних переходів,
+// а вузли комбінують маски побітовими операціями, тому дерево будь-якої глибини
+// не додає викликів на кожне число.
+// Текстовий вигляд: mod(2, 0) and not range(0, 50) or eq(7); пріоритет
+// not > and > or, дужки групують
+abstract class Filter {
+    // Результат перевірки фільтра на відрізку значень: жодне, усі або частина чисел
+    enum Cover { NONE, ALL, MIXED }
+
+    // Маска блоку: біт i встановлено, якщо block[i] проходить фільтр; біти від length - нулі
+    abstract long mask(int[] block, int length);
+
+    // Які з можливих значень відрізка [from, to] проходять фільтр - без читання чисел.
+    // Індекс не перевіряє окремі числа бінів з NONE і ALL
+    abstract Cover classify(int from, int to);
+
+    // Кількість чисел блоку довільної довжини, що проходять фільтр. Листи рахують суму
+    // без побудови маски (такий цикл JIT векторизує), решта - маски частин по 64 числа
+    int count(int[] block, int length) {
+        if (length <= 64) {
+            return Long.bitCount(mask(block, length));
+        }
+        int[] part = new int[64];
+        int count = 0;
+        for (int base = 0; base < length; base += 64) {
+            int partLength = Math.min(64, length - base);
+            System.arraycopy(block, base, part, 0, partLength);
+            count += Long.bitCount(mask(part, partLength));
+        }
+        return count;
+    }
+
+    // Числа з діапазону [from, to] включно
+    static Filter range(int from, int to) {
+        long span = (long) to - from;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                long mask = 0;
+                for (int i = 0; i < length; i++) {
+                    long offset = (long) block[i] - from;
+                    mask |= (((offset | (span - offset)) >>> 63) ^ 1) << i;
+                }
+                return mask;
+            }
+
+            @Override
+            int count(int[] block, int length) {
+                int count = 0;
+                for (int i = 0; i < length; i++) {
+                    long offset = (long) block[i] - from;
+                    count += (int) (((offset | (span - offset)) >>> 63) ^ 1);
+                }
+                return count;
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                if (high < from || low > to) return Cover.NONE;
+                return low >= from && high <= to ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "range(" + from + ", " + to + ")";
+            }
+        };
+    }
+
+    // Числа з заданою остачею від ділення (остача завжди невід'ємна, як у Math.floorMod)
+    static Filter modulo(int divisor, int remainder) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Дільник має бути додатним: " + divisor);
+        }
+        boolean powerOfTwo = Integer.bitCount(divisor) == 1;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                long mask = 0;
+                for (int i = 0; i < length; i++) {
+                    int rest = powerOfTwo ? block[i] & (divisor - 1) : Math.floorMod(block[i], divisor);
+                    mask |= ((((rest ^ remainder) & 0xFFFFFFFFL) - 1) >>> 63) << i;
+                }
+                return mask;
+            }
+
+            @Override
+            int count(int[] block, int length) {
+                int count = 0;
+                for (int i = 0; i < length; i++) {
+                    int rest = powerOfTwo ? block[i] & (divisor - 1) : Math.floorMod(block[i], divisor);
+                    count += (int) ((((rest ^ remainder) & 0xFFFFFFFFL) - 1) >>> 63);
+                }
+                return count;
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                if (remainder < 0 || remainder >= divisor) return Cover.NONE;
+                if (divisor == 1) return Cover.ALL;
+                long length = (long) high - low + 1;
+                if (length >= divisor) return Cover.MIXED;
+                // Остачі відрізка йдуть поспіль від остачі low, тому досить відстані до remainder
+                long distance = Math.floorMod(remainder - Math.floorMod(low, divisor), divisor);
+                if (distance >= length) return Cover.NONE;
+                return length == 1 ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "mod(" + divisor + ", " + remainder + ")";
+            }
+        };
+    }
+
+    static Filter equalTo(int value) {
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                long mask = 0;
+                for (int i = 0; i < length; i++) {
+                    mask |= ((((block[i] ^ value) & 0xFFFFFFFFL) - 1) >>> 63) << i;
+                }
+                return mask;
+            }
+
+            @Override
+            int count(int[] block, int length) {
+                int count = 0;
+                for (int i = 0; i < length; i++) {
+                    count += (int) ((((block[i] ^ value) & 0xFFFFFFFFL) - 1) >>> 63);
+                }
+                return count;
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                if (value < low || value > high) return Cover.NONE;
+                return low == high ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "eq(" + value + ")";
+            }
+        };
+    }
+
+    Filter and(Filter other) {
+        Filter self = this;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                return self.mask(block, length) & other.mask(block, length);
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                Cover left = self.classify(low, high);
+                if (left == Cover.NONE) return Cover.NONE;
+                Cover right = other.classify(low, high);
+                if (right == Cover.NONE) return Cover.NONE;
+                return left == Cover.ALL && right == Cover.ALL ? Cover.ALL : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "(" + self + " and " + other + ")";
+            }
+        };
+    }
+
+    Filter or(Filter other) {
+        Filter self = this;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                return self.mask(block, length) | other.mask(block, length);
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                Cover left = self.classify(low, high);
+                if (left == Cover.ALL) return Cover.ALL;
+                Cover right = other.classify(low, high);
+                if (right == Cover.ALL) return Cover.ALL;
+                return left == Cover.NONE && right == Cover.NONE ? Cover.NONE : Cover.MIXED;
+            }
+
+            @Override
+            public String toString() {
+                return "(" + self + " or " + other + ")";
+            }
+        };
+    }
+
+    Filter not() {
+        Filter self = this;
+        return new Filter() {
+            @Override
+            long mask(int[] block, int length) {
+                return ~self.mask(block, length) & (-1L >>> (64 - length));
+            }
+
+            @Override
+            Cover classify(int low, int high) {
+                return switch (self.classify(low, high)) {
+                    case NONE -> Cover.ALL;
+                    case ALL -> Cover.NONE;
+                    case MIXED -> Cover.MIXED;
+                };
+            }
+
+            @Override
+            public String toString() {
+                return "not " + self;
+            }
+        };
+    }
+
+    static Filter parse(String expression) {
+        Parser parser = new Parser(expression);
+        Filter filter = parser.or();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Зайвий текст у фільтрі: " + parser.tokens.get(parser.position));
+        }
+        return filter;
+    }
+
+    // Розбір рекурсивним спуском: or := and ("or" and)*, and := unary ("and" unary)*,
+    // unary := "not" unary | "(" or ")" | назва "(" числа ")"
+    private static final class Parser {
+        private static final Pattern TOKEN = Pattern.compile("\\s*(-?\\d+|[A-Za-z]+|[(),])");
+
+        private final List<String> tokens = new ArrayList<>();
+        private int position;
+
+        Parser(String expression) {
+            Matcher matcher = TOKEN.matcher(expression);
+            int end = 0;
+            while (matcher.lookingAt()) {
+                tokens.add(matcher.group(1).toLowerCase());
+                end = matcher.end();
+                matcher.region(end, expression.length());
+            }
+            if (!expression.substring(end).isBlank()) {
+                throw new IllegalArgumentException("Некоректний фільтр: " + expression.substring(end).trim());
+            }
+        }
+
+        Filter or() {
+            Filter filter = and();
+            while (accept("or")) {
+                filter = filter.or(and());
+            }
+            return filter;
+        }
+
+        Filter and() {
+            Filter filter = unary();
+            while (accept("and")) {
+                filter = filter.and(unary());
+            }
+            return filter;
+        }
+
+        Filter unary() {
+            if (accept("not")) {
+                return unary().not();
+            }
+            if (accept("(")) {
+                Filter filter = or();
+                expect(")");
+                return filter;
+            }
+            String name = next();
+            expect("(");
+            List<Integer> arguments = new ArrayList<>();
+            do {
+                String token = next();
+                try {
+                    arguments.add(Integer.parseInt(token));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Очікувалося число у фільтрі: " + token);
+                }
+            } while (accept(","));
+            expect(")");
+            return switch (name + "/" + arguments.size()) {
+                case "range/2" -> range(arguments.get(0), arguments.get(1));
+                case "mod/2" -> modulo(arguments.get(0), arguments.get(1));
+                case "eq/1" -> equalTo(arguments.get(0));
+                default -> throw new IllegalArgumentException("Невідомий фільтр: " + name + " з "
+                        + arguments.size() + " аргументами");
+            };
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw new IllegalArgumentException("Очікувалося \"" + token + "\" у фільтрі");
+            }
+        }
+
+        private String next() {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Неочікуваний кінець фільтра");
+            }
+            return tokens.get(position++);
+        }
+    }
+}
+
+// Бітові індекси значень для запитів кількості, що повторюються щокадру. Діапазон значень першого
+// знімка ділиться на не більше MAX_BINS бінів ширини 1 << shift, числа поза ним - у два окремі біни.
+// Бін зберігає позиції чисел у контейнерах по 65536: null - порожній, FULL - усі, char[] - до 4096
+// відсортованих позицій, інакше long[1024]; кількість у біні порахована заздалегідь. Біни, які фільтр
+// цілком приймає або відкидає (Filter.classify), відповідають без читання чисел, змішані перевіряються
+// по позиціях або, якщо містять більшість чисел, повним проходом. Дописування перебудовує лише
+// останній неповний і нові контейнери. Оновлення й запити - з одного потоку
+class BitmapIndex {
+    static final int MAX_BINS = 256;
+    private static final int CONTAINER_SIZE = 1 << 16;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final Object FULL = new Object();
+
+    private final int lower; // Нижня межа першого біна
+    private final int shift; // Ширина біна - 1 << shift значень
+    private final int bins; // Звичайні біни; біни bins і bins + 1 - числа нижче і вище діапазону
+    private final Object[][] containers; // [бін][контейнер]
+    private final long[] cardinality;
+    private Data data = new Data(new int[0]); // Проіндексований знімок
+
+    private BitmapIndex(int lower, int upper) {
+        long domain = (long) upper - lower + 1;
+        int shift = 0;
+        while (((domain - 1) >> shift) + 1 > MAX_BINS) {
+            shift++;
+        }
+        this.lower = lower;
+        this.shift = shift;
+        this.bins = (int) (((domain - 1) >> shift) + 1);
+        this.containers = new Object[bins + 2][0];
+        this.cardinality = new long[bins + 2];
+    }
+
+    // Порожній індекс із бінами за відомим наперед діапазоном; числа поза ним потрапляють у крайні біни
+    static BitmapIndex forRange(int lower, int upper) {
+        return new BitmapIndex(lower, upper);
+    }
+
+    static BitmapIndex build(Data data) {
+        IntSummaryStatistics range = data.stream().parallel().summaryStatistics();
+        BitmapIndex index = data.size() == 0 ? new BitmapIndex(0, 0) : new BitmapIndex(range.getMin(), range.getMax());
+        index.append(data);
+        return index;
+    }
+
+    // Новий знімок має продовжувати проіндексований
+    public void append(Data data) {
+        int indexed = this.data.size();
+        if (data.size() < indexed) {
+            throw new IllegalArgumentException("Знімок коротший за проіндексований: " + data.size() + " < " + indexed);
+        }
+        int first = indexed / CONTAINER_SIZE;
+        int count = (int) (((long) data.size() + CONTAINER_SIZE - 1) / CONTAINER_SIZE);
+        for (int b = 0; b < containers.length; b++) {
+            for (int c = first; c < containers[b].length; c++) {
+                cardinality[b] -= cardinality(containers[b][c]);
+            }
+            containers[b] = Arrays.copyOf(containers[b], count);
+        }
+        if (count - first > 1) {
+            IntStream.range(first, count).parallel().forEach(c -> buildContainer(data, c));
+        } else if (count > first) {
+            buildContainer(data, first); // Звичайне дописування кадру - без накладних витрат паралельного потоку
+        }
+        for (int b = 0; b < containers.length; b++) {
+            for (int c = first; c < count; c++) {
+                cardinality[b] += cardinality(containers[b][c]);
+            }
+        }
+        this.data = data;
+    }
+
+    public long count(Filter filter) {
+        long total = 0;
+        long mixedCount = 0;
+        int[] mixed = new int[containers.length];
+        int mixedBins = 0;
+        for (int b = 0; b < containers.length; b++) {
+            if (cardinality[b] == 0) continue;
+            switch (filter.classify(binLow(b), binHigh(b))) {
+                case ALL -> total += cardinality[b];
+                case MIXED -> {
+                    mixed[mixedBins++] = b;
+                    mixedCount += cardinality[b];
+                }
+                case NONE -> { }
+            }
+        }
+        if (mixedBins == 0) return total;
+        if (mixedCount > data.size() / 4) return scan(filter);
+        return total + verify(Arrays.copyOf(mixed, mixedBins), filter);
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Object[] bin : containers) {
+            for (Object container : bin) {
+                if (container instanceof char[] positions) bytes += 2L * positions.length;
+                else if (container instanceof long[] words) bytes += 8L * words.length;
+            }
+        }
+        return bytes;
+    }
+
+    // Два проходи по контейнеру: підрахунок чисел у бінах, потім позиції - одразу у відсортовані масиви
+    private void buildContainer(Data data, int c) {
+        int from = c * CONTAINER_SIZE;
+        int to = (int) Math.min(data.size(), (long) from + CONTAINER_SIZE);
+        int[] counts = new int[containers.length];
+        for (int i = from; i < to; i++) {
+            counts[bin(data.get(i))]++;
+        }
+        char[][] positions = new char[containers.length][];
+        long[][] words = new long[containers.length][];
+        for (int b = 0; b < containers.length; b++) {
+            if (counts[b] > ARRAY_LIMIT) words[b] = new long[CONTAINER_SIZE / 64];
+            else if (counts[b] > 0) positions[b] = new char[counts[b]];
+        }
+        int[] next = new int[containers.length];
+        for (int i = from; i < to; i++) {
+            int b = bin(data.get(i));
+            int offset = i - from;
+            if (words[b] != null) words[b][offset >>> 6] |= 1L << offset;
+            else positions[b][next[b]++] = (char) offset;
+        }
+        for (int b = 0; b < containers.length; b++) {
+            containers[b][c] = counts[b] == CONTAINER_SIZE ? FULL : words[b] != null ? words[b] : positions[b];
+        }
+    }
+
+    private int bin(int value) {
+        long offset = ((long) value - lower) >> shift;
+        if (offset < 0) return bins;
+        return offset >= bins ? bins + 1 : (int) offset;
+    }
+
+    private int binLow(int b) {
+        if (b == bins) return Integer.MIN_VALUE;
+        if (b == bins + 1) return (int) Math.min(Integer.MAX_VALUE, lower + ((long) bins << shift));
+        return (int) (lower + ((long) b << shift));
+    }
+
+    private int binHigh(int b) {
+        if (b == bins) return (int) Math.max(Integer.MIN_VALUE, lower - 1L);
+        if (b == bins + 1) return Integer.MAX_VALUE;
+        return (int) Math.min(Integer.MAX_VALUE, lower + ((long) (b + 1) << shift) - 1);
+    }
+
+    // Перевірка чисел змішаних бінів паралельно по контейнерах
+    private long verify(int[] mixed, Filter filter) {
+        Data data = this.data;
+        return IntStream.range(0, containers[0].length).parallel().mapToLong(c -> {
+            BlockCounter counter = new BlockCounter(filter);
+            int base = c * CONTAINER_SIZE;
+            for (int b : mixed) {
+                Object container = containers[b][c];
+                if (container == FULL) {
+                    for (int i = 0; i < CONTAINER_SIZE; i++) counter.add(data.get(base + i));
+                } else if (container instanceof char[] positions) {
+                    for (char position : positions) counter.add(data.get(base + position));
+                } else if (container instanceof long[] words) {
+                    for (int w = 0; w < words.length; w++) {
+                        for (long word = words[w]; word != 0; word &= word - 1) {
+                            counter.add(data.get(base + w * 64 + Long.numberOfTrailingZeros(word)));
+                        }
+                    }
+                }
+            }
+            return counter.finish();
+        }).sum();
+    }
+
+    // Повний прохід по знімку блоками
+    private long scan(Filter filter) {
+        Data data = this.data;
+        int size = data.size();
+        return IntStream.range(0, containers[0].length).parallel().mapToLong(c -> {
+            int[] block = new int[4096];
+            long matched = 0;
+            int from = c * CONTAINER_SIZE;
+            int to = (int) Math.min(size, (long) from + CONTAINER_SIZE);
+            for (int base = from; base < to; base += block.length) {
+                int length = Math.min(block.length, to - base);
+                data.copyTo(base, base + length, block);
+                matched += filter.count(block, length);
+            }
+            return matched;
+        }).sum();
+    }
+
+    private static long cardinality(Object container) {
+        if (container == FULL) return CONTAINER_SIZE;
+        if (container instanceof char[] positions) return positions.length;
+        if (container instanceof long[] words) {
+            long count = 0;
+            for (long word : words) count += Long.bitCount(word);
+            return count;
+        }
+        return 0;
+    }
+
+    // Збирає числа блоками по 64 і рахує ті, що проходять фільтр
+    private static final class BlockCounter {
+        private final Filter filter;
+        private final int[] block = new int[64];
+        private int length;
+        private long matched;
+
+        BlockCounter(Filter filter) {
+            this.filter = filter;
+        }
+
+        void add(int value) {
+            block[length++] = value;
+            if (length == 64) {
+                matched += Long.bitCount(filter.mask(block, 64));
+                length = 0;
+            }
+        }
+
+        long finish() {
+            return length == 0 ? matched : matched + Long.bitCount(filter.mask(block, length));
+        }
+    }
+}
+
+// Паралельна обробка частинами: SwingWorker обробляє хвилі блоків паралельно, після кожної
+// хвилі публікує накопичену статистику в EDT і оновлює прогрес; скасування перевіряється між хвилями.
+// Необов'язковий фільтр користувача лише рахує числа, без вибірки самих чисел
+class ParallelProcessUICommand implements Command {
+    private static final int CHUNK_SIZE = 1 << 18; // Кількість чисел в одному блоці
+
+    private final Data data;
+    private final Filter customFilter; // null, якщо фільтр не задано
+    private final JTextArea resultArea;
+    private final ProcessingWorker worker = new ProcessingWorker();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile Statistics latest; // Остання накопичена статистика
+
+    public ParallelProcessUICommand(Data data, JTextArea resultArea, JProgressBar progressBar, JButton cancelButton) {
+        this(data, null, resultArea, progressBar, cancelButton);
+    }
+
+    public ParallelProcessUICommand(Data data, Filter customFilter, JTextArea resultArea,
+                                    JProgressBar progressBar, JButton cancelButton) {
+        this.data = data;
+        this.customFilter = customFilter;
+        this.resultArea = resultArea;
+
+        // Слухачі викликаються в EDT
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            } else if ("state".equals(e.getPropertyName())) {
+                boolean started = e.getNewValue() == SwingWorker.StateValue.STARTED;
+                cancelButton.setEnabled(started);
+                if (started) {
+                    progressBar.setValue(0);
+                    resultArea.setText("🔄 Виконується паралельна обробка даних...\n");
+                }
+            }
+        });
+    }
+
+    @Override
+    public void execute() {
+        worker.run(); // Обчислення в потоці команд, результати надходять в EDT
+    }
+
+    // Скасування без переривання потоку команд: обробка зупиняється після поточної хвилі
+    public void cancel() {
+        worker.cancel(false);
+    }
+
+    // Очікування, доки остаточний результат буде показано
+    public void awaitFinished() throws InterruptedException {
+        finished.await();
+    }
+
+    private static final class Statistics {
+        private static final int BLOCK_SIZE = 4096; // Блок фільтра уміщується в L1-кеш
+
+        private long count;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+        private long sum;
+        private long evens;
+        private long above; // Числа більше 50
+        private long matched; // Числа, що пройшли фільтр користувача
+
+        // Лічильники оновлюються без умовних переходів, бо для випадкових чисел умови непередбачувані.
+        // Вбудовані умови рахуються в одному циклі, фільтр користувача - окремим проходом блоками
+        static Statistics of(Data data, int from, int to, Filter filter) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            long sum = 0;
+            long odds = 0;
+            long above = 0;
+            for (int i = from; i < to; i++) {
+                int value = data.get(i);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+                odds += value & 1;
+                above += (50L - value) >>> 63;
+            }
+            Statistics statistics = new Statistics();
+            statistics.count = to - from;
+            statistics.min = min;
+            statistics.max = max;
+            statistics.sum = sum;
+            statistics.evens = statistics.count - odds;
+            statistics.above = above;
+            statistics.matched = filter == null ? 0 : matched(data, from, to, filter);
+            return statistics;
+        }
+
+        private static long matched(Data data, int from, int to, Filter filter) {
+            int[] block = new int[BLOCK_SIZE];
+            long matched = 0;
+            for (int base = from; base < to; base += BLOCK_SIZE) {
+                int length = Math.min(BLOCK_SIZE, to - base);
+                data.copyTo(base, base + length, block);
+                matched += filter.count(block, length);
+            }
+            return matched;
+        }
+
+        Statistics combine(Statistics other) {
+            Statistics statistics = new Statistics();
+            statistics.count = count + other.count;
+            statistics.min = Math.min(min, other.min);
+            statistics.max = Math.max(max, other.max);
+            statistics.sum = sum + other.sum;
+            statistics.evens = evens + other.evens;
+            statistics.above = above + other.above;
+            statistics.matched = matched + other.matched;
+            return statistics;
+        }
+
+        String format(String header, Filter customFilter) {
+            DecimalFormat df = new DecimalFormat("#.##");
+            int minimum = count == 0 ? 0 : min;
+            int maximum = count == 0 ? 0 : max;
+            String average = df.format(count == 0 ? 0.0 : (double) sum / count);
+
+            StringBuilder sb = new StringBuilder(header);
+            sb.append("🔽 Мінімальне число: ").append(minimum).append("\n");
+            sb.append("🔼 Максимальне число: ").append(maximum).append("\n");
+            sb.append("📊 Середнє значення: ").append(average).append("\n");
+            sb.append("🔢 Парні числа: ").append(evens).append(" шт\n");
+            sb.append("💯 Сума всіх чисел: ").append((double) sum).append("\n");
+            sb.append("⬆️ Числа більше 50: ").append(above).append(" шт\n");
+            sb.append("⬇️ Числа менше або рівні 50: ").append(count - above).append(" шт\n\n");
+
+            sb.append("💕 Статистична обробка:\n");
+            sb.append("📝 Кількість елементів: ").append(count).append("\n");
+            sb.append("✨ Мінімум: ").append(minimum).append("\n");
+            sb.append("✨ Максимум: ").append(maximum).append("\n");
+            sb.append("✨ Середнє: ").append(average).append("\n");
+            if (customFilter != null) {
+                sb.append("🔎 Фільтр ").append(customFilter).append(": ").append(matched).append(" шт\n");
+            }
+            return sb.toString();
+        }
+    }
+
+    private class ProcessingWorker extends SwingWorker<Statistics, Statistics> {
+        @Override
+        protected Statistics doInBackground() {
+            int size = data.size();
+            PhaseEvent processPhase = FlightEvents.beginPhase(FlightEvents.PROCESS, ParallelProcessUICommand.class, size);
+            int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            int wave = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * 2); // Блоків в одній хвилі
+            Statistics total = new Statistics();
+            try {
+                for (int first = 0; first < chunks && !isCancelled(); first += wave) {
+                    int start = first;
+                    Statistics part = IntStream.range(start, Math.min(chunks, start + wave))
+                            .parallel()
+                            .mapToObj(chunk -> Statistics.of(data, chunk * CHUNK_SIZE,
+                                    (int) Math.min(size, (long) (chunk + 1) * CHUNK_SIZE), customFilter))
+                            .reduce(new Statistics(), Statistics::combine);
+                    total = total.combine(part);
+                    latest = total;
+                    publish(total);
+                    setProgress((int) (total.count * 100 / size));
+                }
+            } finally {
+                // Фаза закривається і тоді, коли фільтр чи обробка блоку завершились винятком
+                FlightEvents.endPhase(processPhase);
+            }
+            return total;
+        }
+
+        @Override
+        protected void process(List<Statistics> chunks) {
+            if (isDone()) return;
+            Statistics statistics = chunks.get(chunks.size() - 1);
+            resultArea.setText(statistics.format("🔄 Оброблено " + statistics.count + " з " + data.size() + " чисел\n\n",
+                    customFilter));
+        }
 
-        executor.submit(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    Command command = commandQueue.take();
-                    command.execute();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+        @Override
+        protected void done() {
+            PhaseEvent renderPhase = FlightEvents.beginPhase(FlightEvents.RENDER, ParallelProcessUICommand.class, data.size());
+            try {
+                if (isCancelled()) {
+                    Statistics statistics = latest;
+                    resultArea.setText(statistics == null ? "⏹ Обробку скасовано."
+                            : statistics.format("⏹ Обробку скасовано. Оброблено " + statistics.count
+                            + " з " + data.size() + " чисел:\n\n", customFilter));
+                } else {
+                    resultArea.setText(get().format("✅ Результати обробки даних:\n\n", customFilter));
                 }
+            } catch (InterruptedException | ExecutionException e) {
+                resultArea.setText("❌ Помилка при обробці: " + e.getMessage());
+            } finally {
+                FlightEvents.endPhase(renderPhase);
+                finished.countDown();
             }
-        });
+        }
     }
+}
 
-    public static synchronized CommandManager getInstance() {
-        if (instance == null) {
-            instance = new CommandManager();
+// Кільцевий буфер чисел без блокувань для одного виробника і одного споживача.
+// Позиції лише зростають; виробник публікує запис через setRelease, споживач - звільнення місця
+class IntRingBuffer {
+    private final int[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Наступна позиція читання (споживач)
+    private final AtomicLong tail = new AtomicLong(); // Наступна позиція запису (виробник)
+
+    IntRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Місткість має бути степенем двійки: " + capacity);
         }
-        return instance;
+        buffer = new int[capacity];
+        mask = capacity - 1;
     }
 
-    public void executeCommand(Command command) {
-        try {
-            commandQueue.put(command);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Переривання при додаванні команди до черги: " + e.getMessage());
+    // Виробник: записує стільки чисел, скільки вміщується, і повертає їх кількість
+    public int offer(int[] values, int offset, int count) {
+        long position = tail.getPlain();
+        int written = (int) Math.min(count, buffer.length - (position - head.getAcquire()));
+        for (int i = 0; i < written; i++) {
+            buffer[(int) (position + i) & mask] = values[offset + i];
         }
+        tail.setRelease(position + written);
+        return written;
     }
 
-    public void shutdown() {
-        executor.shutdownNow();
-        try {
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                System.err.println("Пул потоків не завершив роботу коректно.");
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    // Споживач: переносить до max чисел у target починаючи з offset
+    public int drainTo(int[] target, int offset, int max) {
+        long position = head.getPlain();
+        int read = (int) Math.min(max, tail.getAcquire() - position);
+        for (int i = 0; i < read; i++) {
+            target[offset + i] = buffer[(int) (position + i) & mask];
         }
+        head.setRelease(position + read);
+        return read;
+    }
+
+    // Споживач: кількість чисел, готових до читання
+    public int available() {
+        return (int) (tail.getAcquire() - head.getPlain());
+    }
+
+    // Споживач: відкинути все непрочитане (виробник має бути зупинений)
+    public void clear() {
+        head.setRelease(tail.getAcquire());
     }
 }
 
-// Клас даних
-class Data {
-    private final List<Integer> numbers;
+// Джерело живого потоку: окремий потік-виробник пише числа у кільцевий буфер
+abstract class LiveFeed {
+    private volatile boolean running;
+    private IntRingBuffer ring;
+    private Thread thread;
+
+    public void start(IntRingBuffer ring) {
+        this.ring = ring;
+        running = true;
+        thread = new Thread(this::produce, "live-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-    public Data(List<Integer> numbers) {
-        this.numbers = new ArrayList<>(numbers);
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    public List<Integer> getNumbers() {
-        return new ArrayList<>(numbers);
+    protected boolean isRunning() {
+        return running;
     }
 
-    public int getSum() {
-        return numbers.stream().mapToInt(Integer::intValue).sum();
+    // Порожній індекс для чисел потоку, якщо їхній діапазон відомий наперед; null - біни за першим пакетом
+    BitmapIndex newIndex() {
+        return null;
     }
-}
 
-class CustomBorderFactory {
-    public static Border createRoundedBorder(Color color, int thickness, int radius) {
-        return new RoundedBorder(color, thickness, radius);
+    protected abstract void produce();
+
+    // Запис пакета; якщо буфер заповнений, виробник чекає, доки споживач його звільнить
+    protected void put(int[] values, int count) {
+        int written = 0;
+        while (running && written < count) {
+            written += ring.offer(values, written, count - written);
+            if (written < count) LockSupport.parkNanos(100_000);
+        }
     }
 }
 
-// Додаємо клас для красивих рамок
-class RoundedBorder implements Border {
-    private Color color;
-    private int thickness;
-    private int radius;
+// Генератор випадкових чисел із заданою частотою
+class GeneratorFeed extends LiveFeed {
+    private static final int BATCH_SIZE = 1024;
 
-    RoundedBorder(Color color, int thickness, int radius) {
-        this.color = color;
-        this.thickness = thickness;
-        this.radius = radius;
-    }
+    private final int valuesPerSecond;
+    private final int bound;
 
-    @Override
-    public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
-        Graphics2D g2d = (Graphics2D) g.create();
-        g2d.setColor(color);
-        g2d.setStroke(new BasicStroke(thickness));
-        g2d.drawRoundRect(x + thickness/2, y + thickness/2,
-                width - thickness, height - thickness,
-                radius, radius);
-        g2d.dispose();
+    GeneratorFeed(int valuesPerSecond, int bound) {
+        this.valuesPerSecond = valuesPerSecond;
+        this.bound = bound;
     }
 
     @Override
-    public Insets getBorderInsets(Component c) {
-        return new Insets(thickness + 2, thickness + 2, thickness + 2, thickness + 2);
+    BitmapIndex newIndex() {
+        return BitmapIndex.forRange(0, bound - 1);
     }
 
     @Override
-    public boolean isBorderOpaque() {
-        return false;
+    protected void produce() {
+        Random random = new Random();
+        int[] batch = new int[BATCH_SIZE];
+        long start = System.nanoTime();
+        long produced = 0;
+        while (isRunning()) {
+            long due = (System.nanoTime() - start) * valuesPerSecond / 1_000_000_000L; // Скільки мало бути вироблено
+            if (produced >= due) {
+                LockSupport.parkNanos(1_000_000);
+                continue;
+            }
+            int count = (int) Math.min(BATCH_SIZE, due - produced);
+            for (int i = 0; i < count; i++) {
+                batch[i] = random.nextInt(bound);
+            }
+            put(batch, count);
+            produced += count;
+        }
     }
 }
 
-class CustomPinkRenderer extends DefaultTableCellRenderer {
-    @Override
-    public Component getTableCellRendererComponent(JTable table, Object value,
-                                                   boolean isSelected, boolean hasFocus,
-                                                   int row, int column) {
-        Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+// Стеження за файлом, що дописується (як tail -f): цілі числа, розділені будь-якими нецифровими символами.
+// Стан розбору зберігається між читаннями, тому число, розірване межею запису, не губиться
+class FileTailFeed extends LiveFeed {
+    private static final int BUFFER_SIZE = 1 << 16;
 
-        if (value != null && !value.toString().isEmpty()) {
-            try {
-                int num = Integer.parseInt(value.toString());
-                if (num % 2 == 0) {
-                    c.setBackground(new Color(255, 230, 240)); // Світло-рожевий для парних
-                } else {
-                    c.setBackground(new Color(255, 200, 220)); // Темніший рожевий для непарних
+    private final Path path;
+
+    FileTailFeed(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    protected void produce() {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        int[] batch = new int[BUFFER_SIZE / 2 + 1];
+        long value = 0;
+        boolean inNumber = false;
+        boolean negative = false;
+        try (InputStream in = Files.newInputStream(path)) {
+            while (isRunning()) {
+                int read = in.read(bytes);
+                if (read <= 0) {
+                    LockSupport.parkNanos(50_000_000); // Кінець файлу: чекаємо на нові записи
+                    continue;
                 }
-            } catch (NumberFormatException e) {
-                c.setBackground(new Color(255, 230, 240));
+                // Фаза починається лише для прочитаних даних, тож очікування в кінці файлу не записується
+                PhaseEvent readPhase = FlightEvents.beginPhase(FlightEvents.FILE_IO, FileTailFeed.class, read);
+                int count = 0;
+                for (int i = 0; i < read; i++) {
+                    byte b = bytes[i];
+                    if (b >= '0' && b <= '9') {
+                        value = Math.min(value * 10 + (b - '0'), 1L << 31);
+                        inNumber = true;
+                    } else {
+                        if (inNumber) {
+                            batch[count++] = (int) Math.max(Integer.MIN_VALUE,
+                                    Math.min(Integer.MAX_VALUE, negative ? -value : value));
+                        }
+                        negative = b == '-';
+                        inNumber = false;
+                        value = 0;
+                    }
+                }
+                FlightEvents.endPhase(readPhase, count);
+                put(batch, count);
             }
-        } else {
-            c.setBackground(new Color(255, 230, 240));
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу потоку: " + e.getMessage());
         }
-
-        setHorizontalAlignment(JLabel.CENTER);
-        return c;
     }
 }
 
-class GenerateAndDisplayUICommand implements Command {
-    private final List<Integer> numbers;
-    private final int count;
-    private final int bound;
-    private final DefaultTableModel tableModel;
+// Споживач живого потоку в EDT: таймер з обмеженою частотою кадрів забирає все накопичене
+// у кільцевому буфері й застосовує одне пакетне оновлення моделі на кадр. Таймер об'єднує
+// пропущені спрацювання, тому черга подій не переповнюється за будь-якої швидкості потоку.
+// Кількість парних і більших за 50 чисел береться з бітового індексу, який дописується у власному фоновому
+// потоці: EDT лише публікує останній знімок, а проміжні знімки, що не встигли обробитися, пропускаються
+class LiveDisplay {
+    private static final int FRAME_DELAY = 1000 / 30; // Мілісекунд між кадрами
+    private static final int MAX_VALUES = 1 << 25; // Ліміт історії живого потоку
+    private static final Filter EVEN = Filter.modulo(2, 0);
+    private static final Filter ABOVE = Filter.range(51, Integer.MAX_VALUE);
+    private static final String LIMIT_MESSAGE = "\n⏹ Досягнуто ліміту " + MAX_VALUES + " чисел, потік зупинено";
+
+    private final IntRingBuffer ring = new IntRingBuffer(1 << 20);
+    private final NumberTableModel tableModel;
     private final JTextArea resultArea;
-    private final JTable dataTable;
     private final int columns;
-
-    public GenerateAndDisplayUICommand(List<Integer> numbers, int count, int bound,
-                                       DefaultTableModel tableModel, JTextArea resultArea,
-                                       JTable dataTable, int columns) {
-        this.numbers = numbers;
-        this.count = count;
-        this.bound = bound;
+    private final Runnable onStopped;
+    private final Timer timer;
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Frame> latest = new AtomicReference<>(); // Останній ще не проіндексований кадр
+    private LiveFeed feed;
+    private LiveFeed source; // Потік поточного запуску; лишається після зупинки для останнього кадру
+    private int[] history;
+    private int size;
+    private int session; // Номер запуску потоку; результати попередніх запусків відкидаються
+    private boolean limitReached;
+    private long startNanos;
+    // Змінюються лише в потоці індексу
+    private BitmapIndex index;
+    private int indexedSession;
+
+    // Знімок кадру для індексу і текст стану, обчислений в EDT
+    private record Frame(int session, LiveFeed feed, Data snapshot, String status) {}
+
+    LiveDisplay(NumberTableModel tableModel, JTextArea resultArea, int columns, Runnable onStopped) {
         this.tableModel = tableModel;
         this.resultArea = resultArea;
-        this.dataTable = dataTable;
         this.columns = columns;
+        this.onStopped = onStopped;
+        timer = new Timer(FRAME_DELAY, e -> drain());
+        timer.setCoalesce(true);
     }
 
-    @Override
-    public void execute() {
-        numbers.clear();
-        Random random = new Random();
-        for (int i = 0; i < count; i++) {
-            numbers.add(random.nextInt(bound));
-        }
+    public boolean isRunning() {
+        return feed != null;
+    }
 
-        updateTable();
-        resultArea.setText("✨ Згенеровані нові числа! ✨\n" +
-                "Всього: " + numbers.size() + " чисел від 0 до " + bound);
+    public void start(LiveFeed feed) {
+        stop();
+        // Новий масив: знімки попереднього потоку можуть ще оброблятися у потоці команд
+        history = new int[1 << 16];
+        size = 0;
+        session++;
+        limitReached = false;
+        ring.clear();
+        tableModel.setData(new Data(history, 0), columns);
+        resultArea.setText("📡 Очікування даних живого потоку...");
+        startNanos = System.nanoTime();
+        this.feed = feed;
+        source = feed;
+        feed.start(ring);
+        timer.start();
     }
 
-    private void updateTable() {
-        tableModel.setColumnCount(columns);
-        String[] columnNames = new String[columns];
-        for (int i = 0; i < columns; i++) {
-            columnNames[i] = "🔢 " + (i + 1);
+    public void stop() {
+        if (feed == null) return;
+        timer.stop();
+        feed.stop();
+        feed = null;
+        drain();
+        onStopped.run();
+    }
+
+    private void drain() {
+        int available = Math.min(ring.available(), MAX_VALUES - size);
+        if (available > 0) {
+            if (size + available > history.length) {
+                history = Arrays.copyOf(history, Math.max(size + available, Math.min(MAX_VALUES, history.length * 2)));
+            }
+            size += ring.drainTo(history, size, available);
+            Data snapshot = new Data(history, size);
+            tableModel.append(snapshot);
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            String status = "📡 Живий потік: " + size + " чисел, "
+                    + Math.round(size / Math.max(seconds, 1e-3)) + " за секунду\n";
+            if (latest.getAndSet(new Frame(session, source, snapshot, status)) == null) {
+                indexer.execute(this::updateIndex);
+            }
         }
-        tableModel.setColumnIdentifiers(columnNames);
+        if (size == MAX_VALUES && feed != null) {
+            stop();
+            limitReached = true;
+            resultArea.append(LIMIT_MESSAGE);
+        }
+    }
 
-        // Розрахунок кількості рядків
-        int rows = (int) Math.ceil((double) numbers.size() / columns);
-        tableModel.setRowCount(rows);
+    // Дочекатися, доки потік індексу обробить усі опубліковані кадри
+    public void awaitIndex() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        indexer.execute(done::countDown);
+        done.await();
+    }
 
-        // Заповнення таблиці
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < columns; col++) {
-                int index = row * columns + col;
-                if (index < numbers.size()) {
-                    tableModel.setValueAt(numbers.get(index), row, col);
-                } else {
-                    tableModel.setValueAt("", row, col);
-                }
-            }
+    // Виконується в потоці індексу: дописування останнього кадру і запити кількості
+    private void updateIndex() {
+        Frame frame = latest.getAndSet(null);
+        if (frame == null) return;
+        if (frame.session() != indexedSession) {
+            indexedSession = frame.session();
+            index = frame.feed().newIndex();
         }
+        if (index == null) index = BitmapIndex.build(frame.snapshot());
+        else index.append(frame.snapshot());
+
+        long queryStart = System.nanoTime();
+        long evens = index.count(EVEN);
+        long above = index.count(ABOVE);
+        long queryNanos = System.nanoTime() - queryStart;
+        String text = frame.status() + "🔢 Парні числа: " + evens + " шт, ⬆️ більше 50: " + above + " шт (індекс, "
+                + PerformanceDashboard.formatNanos(queryNanos) + ")";
+        SwingUtilities.invokeLater(() -> {
+            if (frame.session() != session) return;
+            resultArea.setText(limitReached ? text + LIMIT_MESSAGE : text);
+        });
+    }
+}
 
-        // Налаштування стилю таблиці
-        for (int i = 0; i < columns; i++) {
-            dataTable.getColumnModel().getColumn(i).setCellRenderer(new CustomPinkRenderer());
+// Вимірювання затримки EDT: раз на 100 мс у чергу подій ставиться порожнє завдання
+// і фіксується, через скільки воно виконалося. Нове завдання ставиться лише після
+// виконання попереднього, тому пробник не засмічує чергу навіть при завислому EDT
+class EdtLagProbe {
+    private static final long PERIOD_MILLIS = 100;
+
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final AtomicLong pendingSince = new AtomicLong(); // 0, якщо завдання не очікує
+    private ScheduledExecutorService scheduler;
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "edt-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::probe, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void probe() {
+        long posted = System.nanoTime();
+        if (pendingSince.compareAndSet(0, posted)) {
+            SwingUtilities.invokeLater(() -> {
+                lag.record(System.nanoTime() - posted);
+                pendingSince.set(0);
+            });
         }
     }
+
+    // Скільки вже чекає поточне завдання (0, якщо EDT встигає)
+    public long currentLag() {
+        long since = pendingSince.get();
+        return since == 0 ? 0 : System.nanoTime() - since;
+    }
+
+    public LatencyHistogram histogram() {
+        return lag;
+    }
 }
 
-class ParallelProcessUICommand implements Command {
-    private final List<Integer> numbers;
-    private final JTextArea resultArea;
+// Панель продуктивності: стан черги команд, перцентилі часу очікування й виконання
+// для кожного типу команди, пам'ять і збирання сміття з платформних MXBean та затримка EDT.
+// Оновлюється раз на секунду лише поки панель показана у вікні
+class PerformanceDashboard extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final transient CommandManager commandManager;
+    private final transient EdtLagProbe edtProbe = new EdtLagProbe();
+    private final transient MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final transient List<GarbageCollectorMXBean> collectors = new ArrayList<>();
+    private final JTextArea text = new JTextArea();
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private long lastSampleNanos;
+    private long lastCompleted;
+    private long lastGcCount;
+    private long lastGcMillis;
+
+    PerformanceDashboard(CommandManager commandManager) {
+        this.commandManager = commandManager;
+        // Біни конкурентних циклів рахують роботу паралельно з програмою, а не паузи
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!collector.getName().contains("Concurrent") && !collector.getName().contains("Cycles")) {
+                collectors.add(collector);
+            }
+        }
 
-    public ParallelProcessUICommand(List<Integer> numbers, JTextArea resultArea) {
-        this.numbers = numbers;
-        this.resultArea = resultArea;
+        setLayout(new BorderLayout());
+        text.setEditable(false);
+        text.setBackground(new Color(255, 230, 240));
+        text.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        text.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        add(new JScrollPane(text), BorderLayout.CENTER);
     }
 
     @Override
-    public void execute() {
-        resultArea.setText("🔄 Виконується паралельна обробка даних...\n");
+    public void addNotify() {
+        super.addNotify();
+        lastSampleNanos = System.nanoTime();
+        lastCompleted = commandManager.getMetrics().getCompletedCount();
+        lastGcCount = gcCount();
+        lastGcMillis = gcMillis();
+        edtProbe.start();
+        timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        edtProbe.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastSampleNanos) / 1e9);
+        CommandMetrics metrics = commandManager.getMetrics();
+        long completed = metrics.getCompletedCount();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+
+        StringBuilder sb = new StringBuilder();
+        Command current = commandManager.getCurrentCommand();
+        sb.append("📋 Черга команд: ").append(commandManager.getQueueDepth()).append(" в очікуванні, виконується: ")
+                .append(current == null ? "-" : current.getClass().getSimpleName()).append("\n");
+        sb.append("⚡ Команд за секунду: ").append(String.format("%.1f", (completed - lastCompleted) / seconds))
+                .append(" (всього ").append(completed).append(")\n\n");
+
+        metrics.getStats().forEach((name, stats) -> {
+            sb.append("🔹 ").append(name).append(": ").append(stats.run.count()).append(" шт\n");
+            appendPercentiles(sb, "   очікування", stats.wait);
+            appendPercentiles(sb, "   виконання ", stats.run);
+        });
+
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        sb.append("\n💾 Купа: ").append(heap.getUsed() >> 20).append(" МБ використано, ")
+                .append(heap.getCommitted() >> 20).append(" МБ виділено");
+        if (heap.getMax() > 0) sb.append(", максимум ").append(heap.getMax() >> 20).append(" МБ");
+        sb.append("\n");
+        sb.append("🗑 Збирання сміття: ").append(gcCount - lastGcCount).append(" за інтервал, паузи ")
+                .append(gcMillis - lastGcMillis).append(" мс за інтервал (всього ")
+                .append(gcCount).append(", ").append(gcMillis).append(" мс)\n");
+
+        LatencyHistogram lag = edtProbe.histogram();
+        sb.append("🖥 Затримка EDT: зараз ").append(formatNanos(edtProbe.currentLag()))
+                .append(", p50 ").append(formatNanos(lag.percentile(50)))
+                .append(", p99 ").append(formatNanos(lag.percentile(99)))
+                .append(", макс ").append(formatNanos(lag.max())).append("\n");
+
+        text.setText(sb.toString());
+        lastSampleNanos = now;
+        lastCompleted = completed;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+    }
+
+    private static void appendPercentiles(StringBuilder sb, String label, LatencyHistogram histogram) {
+        sb.append(label).append(": p50 ").append(formatNanos(histogram.percentile(50)))
+                .append(", p95 ").append(formatNanos(histogram.percentile(95)))
+                .append(", p99 ").append(formatNanos(histogram.percentile(99)))
+                .append(", макс ").append(formatNanos(histogram.max())).append("\n");
+    }
+
+    private long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) total += Math.max(0, collector.getCollectionCount());
+        return total;
+    }
+
+    private long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) total += Math.max(0, collector.getCollectionTime());
+        return total;
+    }
+
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) return String.format("%.0f мкс", nanos / 1e3);
+        if (nanos < 1_000_000_000) return String.format("%.1f мс", nanos / 1e6);
+        return String.format("%.2f с", nanos / 1e9);
+    }
+}
+
+// Запис дій користувача PinkUI з часом від початку сеансу: рядки "<мс> generate <кількість>"
+// або "<мс> process". Вмикається властивістю -Dtask7.record=<файл>; кожен рядок записується одразу
+class InteractionRecorder implements AutoCloseable {
+    enum Action { GENERATE, PROCESS }
+
+    // filter - додатковий фільтр обробки або null
+    record Entry(long offsetMillis, Action action, int count, Filter filter) {}
+
+    private final BufferedWriter writer; // null, якщо запис вимкнено
+    private final long startNanos = System.nanoTime();
+
+    private InteractionRecorder(BufferedWriter writer) {
+        this.writer = writer;
+    }
+
+    public static InteractionRecorder fromSystemProperty() {
+        String file = System.getProperty("task7.record");
+        if (file == null) return new InteractionRecorder(null);
+        try {
+            return new InteractionRecorder(Files.newBufferedWriter(Path.of(file)));
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Помилка відкриття файлу запису сеансу: " + e.getMessage());
+            return new InteractionRecorder(null);
+        }
+    }
+
+    public void record(Action action, int count) {
+        record(action, count, null);
+    }
 
+    // Для PROCESS вираз фільтра (якщо є) записується до кінця рядка, щоб сеанс відтворювався з тим самим фільтром
+    public void record(Action action, int count, String filter) {
+        if (writer == null) return;
+        long offsetMillis = (System.nanoTime() - startNanos) / 1_000_000;
         try {
-            Thread.sleep(500); // Імітація обробки для UI ефекту
+            writer.write(offsetMillis + " " + action.name().toLowerCase()
+                    + (action == Action.GENERATE ? " " + count : filter != null ? " " + filter : ""));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Помилка запису сеансу: " + e.getMessage());
+        }
+    }
 
-            // Обробка даних
-            int min = numbers.stream().min(Integer::compare).orElse(0);
-            int max = numbers.stream().max(Integer::compare).orElse(0);
-            double avg = numbers.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-            List<Integer> evens = numbers.stream().filter(n -> n % 2 == 0).collect(Collectors.toList());
-            double sum = numbers.stream().mapToInt(Integer::intValue).sum() * 1.0;
-            Map<Boolean, List<Integer>> partitioned = numbers.stream()
-                    .collect(Collectors.partitioningBy(n -> n > 50));
+    // Читання записаного сеансу; порожні рядки та рядки з # пропускаються
+    public static List<Entry> load(Path path) throws IOException {
+        PhaseEvent loadPhase = FlightEvents.beginPhase(FlightEvents.FILE_IO, InteractionRecorder.class, 0);
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            String[] parts = trimmed.split("\\s+", 3);
+            try {
+                Action action = Action.valueOf(parts[1].toUpperCase());
+                int count = action == Action.GENERATE ? Integer.parseInt(parts[2]) : 0;
+                Filter filter = action == Action.PROCESS && parts.length > 2 ? Filter.parse(parts[2]) : null;
+                entries.add(new Entry(Long.parseLong(parts[0]), action, count, filter));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Некоректний рядок сеансу: " + line, e);
+            }
+        }
+        FlightEvents.endPhase(loadPhase, entries.size());
+        return entries;
+    }
 
-            DecimalFormat df = new DecimalFormat("#.##");
+    @Override
+    public void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Помилка закриття файлу сеансу: " + e.getMessage());
+        }
+    }
+}
 
-            StringBuilder sb = new StringBuilder();
-            sb.append("✅ Результати обробки даних:\n\n");
-            sb.append("🔽 Мінімальне число: ").append(min).append("\n");
-            sb.append("🔼 Максимальне число: ").append(max).append("\n");
-            sb.append("📊 Середнє значення: ").append(df.format(avg)).append("\n");
-            sb.append("🔢 Парні числа: ").append(evens.size()).append(" шт\n");
-            sb.append("💯 Сума всіх чисел: ").append(sum).append("\n");
-            sb.append("⬆️ Числа більше 50: ").append(partitioned.get(true).size()).append(" шт\n");
-            sb.append("⬇️ Числа менше або рівні 50: ").append(partitioned.get(false).size()).append(" шт\n\n");
+// Відтворення сеансу без вікна на максимальній швидкості: кожна дія проходить через CommandManager
+// до моделі таблиці та JTable, а затримка вимірюється від постановки в чергу до появи результату в EDT.
+// Після кожної дії видима частина таблиці малюється у зображення, щоб врахувати і рендерер
+class ReplayBenchmark {
+    private static final int VIEW_WIDTH = 600;
+    private static final int VIEW_HEIGHT = 400;
 
-            sb.append("💕 Статистична обробка:\n");
-            sb.append("📝 Кількість елементів: ").append(numbers.size()).append("\n");
-            sb.append("✨ Мінімум: ").append(min).append("\n");
-            sb.append("✨ Максимум: ").append(max).append("\n");
-            sb.append("✨ Середнє: ").append(df.format(avg)).append("\n");
+    private final CommandManager commandManager = CommandManager.getInstance();
+    private final NumberTableModel tableModel = new NumberTableModel();
+    private final JTable dataTable = new JTable(tableModel);
+    private final JTextArea resultArea = new JTextArea();
+    private final BufferedImage canvas = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    private final LatencyHistogram generateLatency = new LatencyHistogram();
+    private final LatencyHistogram processLatency = new LatencyHistogram();
+    private final LatencyHistogram paintTime = new LatencyHistogram();
+    private final int columns;
+    private final int bound;
+    private long modelEvents; // Лише в EDT
+
+    // Бар'єр у черзі команд: виконується після попередньої команди і ставить у чергу EDT
+    // завдання, що спрацює після всіх оновлень, відправлених цією командою
+    private final class EdtBarrier implements Command {
+        private final CountDownLatch reached = new CountDownLatch(1);
+
+        @Override
+        public void execute() {
+            SwingUtilities.invokeLater(() -> {
+                paintTable();
+                reached.countDown();
+            });
+        }
+    }
+
+    ReplayBenchmark(int columns, int bound) {
+        this.columns = columns;
+        this.bound = bound;
+        dataTable.setDefaultRenderer(Integer.class, new CustomPinkRenderer());
+        dataTable.setSize(VIEW_WIDTH, VIEW_HEIGHT);
+        tableModel.addTableModelListener(e -> modelEvents++);
+    }
 
-            resultArea.setText(sb.toString());
+    public void run(List<InteractionRecorder.Entry> entries) throws InterruptedException, InvocationTargetException {
+        long values = 0;
+        long start = System.nanoTime();
+        for (InteractionRecorder.Entry entry : entries) {
+            long submitted = System.nanoTime();
+            if (entry.action() == InteractionRecorder.Action.GENERATE) {
+                commandManager.executeCommand(new GenerateAndDisplayUICommand(entry.count(), bound, tableModel, resultArea, columns));
+                EdtBarrier barrier = new EdtBarrier();
+                commandManager.executeCommand(barrier);
+                barrier.reached.await();
+                generateLatency.record(System.nanoTime() - submitted);
+                values += entry.count();
+            } else {
+                Data[] data = new Data[1];
+                SwingUtilities.invokeAndWait(() -> data[0] = tableModel.getData());
+                ParallelProcessUICommand command = new ParallelProcessUICommand(data[0], entry.filter(), resultArea,
+                        new JProgressBar(), new JButton());
+                commandManager.executeCommand(command);
+                command.awaitFinished();
+                processLatency.record(System.nanoTime() - submitted);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] events = new long[1];
+        SwingUtilities.invokeAndWait(() -> events[0] = modelEvents);
+
+        double seconds = Math.max(1e-9, elapsed / 1e9);
+        long recorded = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).offsetMillis();
+        System.out.println("Дій: " + entries.size() + " (generate: " + generateLatency.count()
+                + ", process: " + processLatency.count() + ")");
+        System.out.println("Тривалість запису: " + recorded + " мс, відтворення: "
+                + PerformanceDashboard.formatNanos(elapsed) + ", " + String.format("%.1f", entries.size() / seconds) + " дій/с");
+        System.out.println("Оновлення моделі: " + events[0] + " подій, " + values + " чисел, "
+                + String.format("%.0f", values / seconds) + " чисел/с");
+        printLatency("Затримка generate", generateLatency);
+        printLatency("Затримка process", processLatency);
+        printLatency("Малювання таблиці", paintTime);
+    }
 
-        } catch (Exception e) {
-            resultArea.setText("❌ Помилка при обробці: " + e.getMessage());
+    // Малювання видимої частини таблиці; викликається в EDT
+    private void paintTable() {
+        long started = System.nanoTime();
+        Graphics2D g = canvas.createGraphics();
+        try {
+            dataTable.paint(g);
+        } finally {
+            g.dispose();
         }
+        paintTime.record(System.nanoTime() - started);
+    }
+
+    private static void printLatency(String label, LatencyHistogram histogram) {
+        if (histogram.count() == 0) return;
+        System.out.println(label + ": p50 " + PerformanceDashboard.formatNanos(histogram.percentile(50))
+                + ", p95 " + PerformanceDashboard.formatNanos(histogram.percentile(95))
+                + ", p99 " + PerformanceDashboard.formatNanos(histogram.percentile(99))
+                + ", макс " + PerformanceDashboard.formatNanos(histogram.max()));
     }
 }
 
 class PinkUI extends JFrame {
-    private final List<Integer> numbers;
     private final CommandManager commandManager = CommandManager.getInstance();
     private final JTextArea resultArea;
     private final int defaultCount = 15;
     private final int defaultBound = 100;
     private final int defaultColumns = 5;
     private final int defaultCellWidth = 6;
+    private final int liveRate = 200_000; // Чисел за секунду в живому режимі
     private JTable dataTable;
-    private DefaultTableModel tableModel;
+    private NumberTableModel tableModel;
+    private JTextField countField;
+    private JTextField filterField; // Вираз фільтра, наприклад "mod(3, 0) and not range(0, 10)"
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private transient ParallelProcessUICommand currentProcess; // Остання запущена обробка
+    private JButton liveButton;
+    private transient LiveDisplay liveDisplay;
+    private final transient InteractionRecorder recorder = InteractionRecorder.fromSystemProperty();
 
     public PinkUI() {
-        numbers = new ArrayList<>();
-
         // Базове налаштування вікна
         setTitle("Обробник Даних ");
-        setSize(650, 500);
+        setSize(900, 560);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         getContentPane().setBackground(new Color(255, 200, 230));
 
@@ -305,9 +2527,33 @@ class PinkUI extends JFrame {
         JButton genButton = createPinkButton("Згенерувати числа", buttonFont);
         JButton processButton = createPinkButton("Обробити дані", buttonFont);
         JButton exitButton = createPinkButton("Вийти", buttonFont);
-
+        cancelButton = createPinkButton("Скасувати", buttonFont);
+        liveButton = createPinkButton("Живий потік", buttonFont);
+        JButton tailButton = createPinkButton("Стежити за файлом", buttonFont);
+        cancelButton.setEnabled(false);
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setForeground(new Color(255, 105, 180));
+
+        countField = new JTextField(String.valueOf(defaultCount), 9);
+        JLabel countLabel = new JLabel("Кількість:");
+        countLabel.setFont(buttonFont);
+
+        filterField = new JTextField(14);
+        JLabel filterLabel = new JLabel("Фільтр:");
+        filterLabel.setFont(buttonFont);
+
+        buttonPanel.add(countLabel);
+        buttonPanel.add(countField);
+        buttonPanel.add(filterLabel);
+        buttonPanel.add(filterField);
         buttonPanel.add(genButton);
+        buttonPanel.add(liveButton);
+        buttonPanel.add(tailButton);
         buttonPanel.add(processButton);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(progressBar);
         buttonPanel.add(exitButton);
 
         // Область результатів
@@ -321,8 +2567,11 @@ class PinkUI extends JFrame {
         JScrollPane scrollPane = new JScrollPane(resultArea);
 
         // Таблиця для відображення чисел
-        tableModel = new DefaultTableModel();
+        tableModel = new NumberTableModel();
+        liveDisplay = new LiveDisplay(tableModel, resultArea, defaultColumns,
+                () -> liveButton.setText("Живий потік"));
         dataTable = new JTable(tableModel);
+        dataTable.setDefaultRenderer(Integer.class, new CustomPinkRenderer());
         dataTable.setBackground(new Color(255, 230, 240));
         dataTable.setGridColor(new Color(255, 182, 193));
         dataTable.getTableHeader().setBackground(new Color(255, 182, 193));
@@ -343,7 +2592,7 @@ class PinkUI extends JFrame {
         JPanel centerPanel = new JPanel(new GridLayout(2, 1, 10, 10));
         centerPanel.setBackground(new Color(255, 200, 230));
         centerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        centerPanel.add(tableScroll);
+        centerPanel.add(createDataTabs(tableScroll));
         centerPanel.add(scrollPane);
 
         add(headerLabel, BorderLayout.NORTH);
@@ -354,11 +2603,58 @@ class PinkUI extends JFrame {
         genButton.addActionListener(e -> generateData());
         processButton.addActionListener(e -> processData());
         exitButton.addActionListener(e -> exitApplication());
+        liveButton.addActionListener(e -> {
+            if (liveDisplay.isRunning()) {
+                liveDisplay.stop();
+            } else {
+                startLive(new GeneratorFeed(liveRate, defaultBound));
+            }
+        });
+        tailButton.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+                startLive(new FileTailFeed(chooser.getSelectedFile().toPath()));
+            }
+        });
+        cancelButton.addActionListener(e -> {
+            if (currentProcess != null) currentProcess.cancel();
+        });
 
         // Автоматично генеруємо дані при запуску
         SwingUtilities.invokeLater(this::generateData);
     }
 
+    // Вкладки з таблицею і тепловою картою того самого набору
+    private JTabbedPane createDataTabs(JScrollPane tableScroll) {
+        HeatmapPanel heatmapPanel = new HeatmapPanel();
+        // Зміна всієї таблиці перебудовує карту, а дописані рядки живого потоку лише доповнюють її
+        tableModel.addTableModelListener(e -> {
+            if (e.getLastRow() == Integer.MAX_VALUE || e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+                heatmapPanel.setData(tableModel.getData());
+            } else {
+                heatmapPanel.appendData(tableModel.getData());
+            }
+        });
+
+        JComboBox<HeatmapPanel.Mode> modeBox = new JComboBox<>(HeatmapPanel.Mode.values());
+        modeBox.addActionListener(e -> heatmapPanel.setMode((HeatmapPanel.Mode) modeBox.getSelectedItem()));
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 2));
+        controls.setBackground(new Color(255, 200, 230));
+        controls.add(new JLabel("Показник блоку:"));
+        controls.add(modeBox);
+        controls.add(new JLabel("коліщатко - масштаб, перетягування - зсув, подвійний клік - весь набір"));
+
+        JPanel heatmapTab = new JPanel(new BorderLayout());
+        heatmapTab.add(controls, BorderLayout.NORTH);
+        heatmapTab.add(heatmapPanel, BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Таблиця", tableScroll);
+        tabs.addTab("Теплова карта", heatmapTab);
+        tabs.addTab("Продуктивність", new PerformanceDashboard(commandManager));
+        return tabs;
+    }
+
     private JButton createPinkButton(String text, Font font) {
         JButton button = new JButton(text);
         button.setFont(font);
@@ -385,14 +2681,36 @@ class PinkUI extends JFrame {
         return button;
     }
 
+    private void startLive(LiveFeed feed) {
+        liveDisplay.start(feed);
+        liveButton.setText("Зупинити потік");
+    }
+
     private void generateData() {
+        int count;
+        try {
+            count = Integer.parseInt(countField.getText().trim());
+        } catch (NumberFormatException e) {
+            count = 0;
+        }
+        if (count <= 0) {
+            JOptionPane.showMessageDialog(this,
+                    "Кількість має бути додатним цілим числом!",
+                    "Повідомлення",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        liveDisplay.stop();
+        recorder.record(InteractionRecorder.Action.GENERATE, count);
         commandManager.executeCommand(new GenerateAndDisplayUICommand(
-                numbers, defaultCount, defaultBound, tableModel, resultArea, dataTable, defaultColumns
+                count, defaultBound, tableModel, resultArea, defaultColumns
         ));
     }
 
     private void processData() {
-        if (numbers.isEmpty()) {
+        Data data = tableModel.getData();
+        if (data.size() == 0) {
             JOptionPane.showMessageDialog(this,
                     "Спочатку згенеруйте числа!",
                     "Повідомлення",
@@ -400,10 +2718,27 @@ class PinkUI extends JFrame {
             return;
         }
 
-        commandManager.executeCommand(new ParallelProcessUICommand(numbers, resultArea));
+        Filter filter = null;
+        String expression = filterField.getText().trim();
+        if (!expression.isEmpty()) {
+            try {
+                filter = Filter.parse(expression);
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Помилка у фільтрі: " + e.getMessage(),
+                        "Повідомлення",
+                        JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+        }
+
+        recorder.record(InteractionRecorder.Action.PROCESS, 0, filter == null ? null : expression);
+        currentProcess = new ParallelProcessUICommand(data, filter, resultArea, progressBar, cancelButton);
+        commandManager.executeCommand(currentProcess);
     }
 
     private void exitApplication() {
+        recorder.close();
         commandManager.shutdown();
         dispose();
         System.exit(0);
@@ -411,6 +2746,12 @@ class PinkUI extends JFrame {
 }
 
 public class Main {
+    // Стан неінтерактивних операцій (run), що зберігається між операціями одного запуску
+    private static JTextArea resultArea;
+    private static NumberTableModel tableModel;
+    private static JTable dataTable;
+    private static LiveDisplay liveDisplay;
+
     public static void main(String[] args) {
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -423,4 +2764,103 @@ public class Main {
             ui.setVisible(true);
         });
     }
+
+    /**
+     * Виконує одну іменовану операцію
+     * @param operation назва операції (generate, process, live, replay)
+     * @param options параметри у вигляді ключ=значення
+     */
+    static void run(String operation, Map<String, String> options) {
+        if (resultArea == null) {
+            System.setProperty("java.awt.headless", "true");
+            resultArea = new JTextArea();
+            tableModel = new NumberTableModel();
+            dataTable = new JTable(tableModel);
+            dataTable.setDefaultRenderer(Integer.class, new CustomPinkRenderer());
+            liveDisplay = new LiveDisplay(tableModel, resultArea, intOption(options, "columns", 5), () -> {});
+        }
+        switch (operation) {
+            case "generate" -> new GenerateAndDisplayUICommand(intOption(options, "count", 15),
+                    intOption(options, "bound", 100), tableModel, resultArea,
+                    intOption(options, "columns", 5)).execute();
+            case "process" -> {
+                // filter=... додає лічильник чисел за виразом, наприклад "mod(3, 0) and not range(0, 10)"
+                String filter = options.get("filter");
+                ParallelProcessUICommand command = new ParallelProcessUICommand(tableModel.getData(),
+                        filter == null ? null : Filter.parse(filter), resultArea, new JProgressBar(), new JButton());
+                command.execute();
+                awaitFinished(command);
+            }
+            case "live" -> {
+                // Живий потік протягом seconds секунд із частотою rate чисел за секунду
+                int rate = intOption(options, "rate", 200_000);
+                int bound = intOption(options, "bound", 100);
+                invokeAndWait(() -> liveDisplay.start(new GeneratorFeed(rate, bound)));
+                try {
+                    Thread.sleep(intOption(options, "seconds", 3) * 1000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                invokeAndWait(liveDisplay::stop);
+                try {
+                    liveDisplay.awaitIndex(); // Лічильники останнього кадру оновлюються у фоні
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case "replay" -> {
+                // ReplayBenchmark друкує власний звіт, а resultArea лишається від попередньої операції
+                replay(options);
+                return;
+            }
+            default -> throw new IllegalArgumentException("Невідома операція: " + operation);
+        }
+        invokeAndWait(() -> {}); // Дочекатися оновлень, відправлених командами в EDT
+        System.out.println(resultArea.getText());
+    }
+
+    // Відтворення сеансу з file=... або, без файлу, actions=N чергувань generate (count=...) і process.
+    // Команди йдуть через CommandManager, який після відтворення зупиняється, щоб процес міг завершитися
+    private static void replay(Map<String, String> options) {
+        try {
+            List<InteractionRecorder.Entry> entries = new ArrayList<>();
+            String file = options.get("file");
+            if (file != null) {
+                entries = InteractionRecorder.load(Path.of(file));
+            } else {
+                int count = intOption(options, "count", 100_000);
+                for (int i = 0; i < intOption(options, "actions", 20); i++) {
+                    entries.add(new InteractionRecorder.Entry(0, i % 2 == 0
+                            ? InteractionRecorder.Action.GENERATE : InteractionRecorder.Action.PROCESS, count, null));
+                }
+            }
+            new ReplayBenchmark(intOption(options, "columns", 5), intOption(options, "bound", 100)).run(entries);
+        } catch (IOException | InvocationTargetException e) {
+            System.err.println("Помилка відтворення сеансу: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            CommandManager.getInstance().shutdown();
+        }
+    }
+
+    // Дочекатися, доки обробка покаже остаточний результат
+    private static void awaitFinished(ParallelProcessUICommand command) {
+        try {
+            command.awaitFinished();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Виконати дію в EDT і дочекатися завершення
+    private static void invokeAndWait(Runnable action) {
+        try {
+            SwingUtilities.invokeAndWait(action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            System.err.println("Помилка оновлення інтерфейсу: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file